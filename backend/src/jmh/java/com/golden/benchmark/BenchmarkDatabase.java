@@ -0,0 +1,109 @@
+package com.golden.benchmark;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * 基准测试用内存数据库
+ * 使用 H2 MySQL 兼容模式建表并灌入测试数据，直接加载 classpath:mapper/*.xml 构建 MyBatis 会话工厂，
+ * 不启动 Spring 容器。
+ */
+public final class BenchmarkDatabase {
+    public static final int PRODUCTS = 2000;
+    public static final int USERS = 100;
+    public static final int CART_ITEMS_PER_USER = 30;
+    
+    private BenchmarkDatabase() {
+    }
+    
+    public static JdbcDataSource createDataSource() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:bench-" + UUID.randomUUID()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        new ResourceDatabasePopulator(new ClassPathResource("benchmark-schema.sql")).execute(dataSource);
+        try (Connection connection = dataSource.getConnection()) {
+            seed(connection);
+        }
+        return dataSource;
+    }
+    
+    public static SqlSessionFactory createSqlSessionFactory(JdbcDataSource dataSource) throws Exception {
+        Configuration configuration = new Configuration(
+                new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.getTypeAliasRegistry().registerAliases("com.golden.entity");
+        Resource[] mappers = new PathMatchingResourcePatternResolver().getResources("classpath:mapper/*.xml");
+        for (Resource mapper : mappers) {
+            try (InputStream in = mapper.getInputStream()) {
+                new XMLMapperBuilder(in, configuration,
+                        mapper.getURL().toString(), configuration.getSqlFragments()).parse();
+            }
+        }
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+    
+    private static void seed(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO categories (name, parent_id, sort_order) VALUES (?, 0, ?)")) {
+            for (int i = 1; i <= 10; i++) {
+                ps.setString(1, "分类" + i);
+                ps.setInt(2, i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO users (username, password, email) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= USERS; i++) {
+                ps.setString(1, "user" + i);
+                ps.setString(2, "x");
+                ps.setString(3, "user" + i + "@example.com");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO products (name, description, price, stock, category_id, image_urls, status) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, 1)")) {
+            for (int i = 1; i <= PRODUCTS; i++) {
+                ps.setString(1, "商品" + i);
+                ps.setString(2, "这是第" + i + "个测试商品的描述，用于基准测试");
+                ps.setBigDecimal(3, BigDecimal.valueOf(1999 + i, 2));
+                ps.setInt(4, Integer.MAX_VALUE / 2);
+                ps.setLong(5, i % 10 + 1);
+                ps.setString(6, "[\"http://localhost:8080/uploads/" + i + ".jpg\"]");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO cart_items (user_id, product_id, quantity) VALUES (?, ?, ?)")) {
+            for (int user = 1; user <= USERS; user++) {
+                for (int j = 0; j < CART_ITEMS_PER_USER; j++) {
+                    ps.setLong(1, user);
+                    ps.setLong(2, (user * 37L + j) % PRODUCTS + 1);
+                    ps.setInt(3, j % 3 + 1);
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+}
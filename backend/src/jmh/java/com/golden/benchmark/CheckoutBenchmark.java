@@ -0,0 +1,127 @@
+package com.golden.benchmark;
+
+import com.golden.entity.CartItem;
+import com.golden.entity.OrderItem;
+import com.golden.entity.Product;
+import com.golden.mapper.CartItemMapper;
+import com.golden.mapper.ProductMapper;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 下单路径：H2 上的购物车/商品 Mapper 查询，以及 OrderService.createOrder 中的 BigDecimal 金额计算
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutBenchmark {
+    private SqlSessionFactory sqlSessionFactory;
+    private SqlSession session;
+    private CartItemMapper cartItemMapper;
+    private ProductMapper productMapper;
+    
+    private List<CartItem> cart;
+    private Map<Long, Product> products;
+    
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        sqlSessionFactory = BenchmarkDatabase.createSqlSessionFactory(BenchmarkDatabase.createDataSource());
+        // 自动提交会话；查询类基准每次调用前清空一级缓存，避免命中 MyBatis 本地缓存
+        session = sqlSessionFactory.openSession(true);
+        cartItemMapper = session.getMapper(CartItemMapper.class);
+        productMapper = session.getMapper(ProductMapper.class);
+        
+        cart = cartItemMapper.findByUserId(1L);
+        products = new HashMap<>();
+        for (Product product : productMapper.findByIds(productIds(cart))) {
+            products.put(product.getId(), product);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        session.close();
+    }
+    
+    @Benchmark
+    public List<CartItem> findCartWithProducts() {
+        session.clearCache();
+        return cartItemMapper.findByUserId(ThreadLocalRandom.current().nextLong(1, BenchmarkDatabase.USERS + 1));
+    }
+    
+    @Benchmark
+    public List<Product> findProductsByIds() {
+        session.clearCache();
+        return productMapper.findByIds(productIds(cart));
+    }
+    
+    @Benchmark
+    public int findProductsOneByOne() {
+        int found = 0;
+        for (CartItem item : cart) {
+            session.clearCache();
+            if (productMapper.findById(item.getProductId()) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+    
+    @Benchmark
+    public int batchDecreaseStock() {
+        return productMapper.batchDecreaseStock(cart);
+    }
+    
+    /**
+     * 与 OrderService.createOrder 一致的订单金额与订单项小计计算
+     */
+    @Benchmark
+    public BigDecimal computeOrderTotal() {
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        List<OrderItem> orderItems = new ArrayList<>(cart.size());
+        for (CartItem item : cart) {
+            Product product = products.get(item.getProductId());
+            BigDecimal subtotal = product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            totalAmount = totalAmount.add(subtotal);
+            
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProductId(item.getProductId());
+            orderItem.setQuantity(item.getQuantity());
+            orderItem.setPrice(product.getPrice());
+            orderItem.setSubtotal(subtotal);
+            orderItems.add(orderItem);
+        }
+        return totalAmount;
+    }
+    
+    private static List<Long> productIds(List<CartItem> items) {
+        List<Long> ids = new ArrayList<>(items.size());
+        for (CartItem item : items) {
+            ids.add(item.getProductId());
+        }
+        return ids;
+    }
+}
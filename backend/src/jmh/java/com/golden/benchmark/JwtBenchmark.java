@@ -0,0 +1,60 @@
+package com.golden.benchmark;
+
+import com.golden.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 生成与解析
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+    private JwtUtil jwtUtil;
+    private String token;
+    
+    @Setup
+    public void setup() throws Exception {
+        jwtUtil = createJwtUtil("golden-ecommerce-secret-key-2024-benchmark", 86400000L);
+        token = jwtUtil.generateToken(42L, "benchmark");
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(42L, "benchmark");
+    }
+    
+    @Benchmark
+    public Long getUserIdFromToken() {
+        return jwtUtil.getUserIdFromToken(token);
+    }
+    
+    static JwtUtil createJwtUtil(String secret, Long expiration) throws Exception {
+        JwtUtil jwtUtil = new JwtUtil();
+        setField(jwtUtil, "secret", secret);
+        setField(jwtUtil, "expiration", expiration);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+    
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
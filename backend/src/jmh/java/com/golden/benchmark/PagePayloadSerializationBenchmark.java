@@ -0,0 +1,80 @@
+package com.golden.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.golden.entity.Product;
+import com.golden.util.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列表接口响应序列化：Result 包装的 Map 分页数据（与 ProductService.findAll 返回结构一致）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagePayloadSerializationBenchmark {
+    @Param({"10", "50"})
+    private int pageSize;
+    
+    private ObjectMapper objectMapper;
+    private Result<Map<String, Object>> payload;
+    
+    @Setup
+    public void setup() {
+        // 与 application.yml 中 spring.jackson 配置保持一致
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .dateFormat(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"))
+                .timeZone(TimeZone.getTimeZone("GMT+8"))
+                .build();
+        
+        List<Product> products = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName("商品" + i);
+            product.setDescription("这是第" + i + "个测试商品的描述，用于基准测试");
+            product.setPrice(BigDecimal.valueOf(1999 + i, 2));
+            product.setStock(100);
+            product.setCategoryId(1L);
+            product.setImageUrls("[\"http://localhost:8080/uploads/" + i + ".jpg\"]");
+            product.setStatus(1);
+            product.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(i));
+            product.setUpdatedAt(product.getCreatedAt());
+            products.add(product);
+        }
+        Map<String, Object> page = new HashMap<>();
+        page.put("list", products);
+        page.put("total", 10000);
+        page.put("page", 1);
+        page.put("pageSize", pageSize);
+        payload = Result.success(page);
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+}
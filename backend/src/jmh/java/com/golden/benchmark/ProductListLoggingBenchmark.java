@@ -0,0 +1,125 @@
+package com.golden.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.golden.controller.ProductController;
+import com.golden.entity.Product;
+import com.golden.service.ProductService;
+import com.golden.util.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 商品列表接口的日志开销
+ * 日志配置与生产环境一致（AsyncAppender，队列 512，不丢弃，com.golden 为 INFO），输出到空流；
+ * 服务层返回预先构造的分页数据，只测量控制器本身。
+ * legacyLogging 复现改造前每次请求一条 INFO 明细日志的写法，sampledLogging 为当前 ProductController。
+ * 使用 -prof gc 查看 gc.alloc.rate.norm（每次调用分配字节数）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductListLoggingBenchmark {
+    private static final Logger legacyLogger = LoggerFactory.getLogger(ProductController.class);
+    
+    private LoggerContext loggerContext;
+    private ProductService productService;
+    private ProductController productController;
+    
+    @Setup
+    public void setup() {
+        loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+        
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} [%thread] %-5level %logger{50} - %msg%n");
+        encoder.start();
+        
+        OutputStreamAppender<ILoggingEvent> file = new OutputStreamAppender<>();
+        file.setContext(loggerContext);
+        file.setEncoder(encoder);
+        file.setOutputStream(OutputStream.nullOutputStream());
+        file.start();
+        
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(loggerContext);
+        async.setQueueSize(512);
+        async.setDiscardingThreshold(0);
+        async.addAppender(file);
+        async.start();
+        
+        ch.qos.logback.classic.Logger root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(async);
+        loggerContext.getLogger("com.golden").setLevel(Level.INFO);
+        
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName("商品" + i);
+            products.add(product);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("list", products);
+        result.put("total", 10000);
+        result.put("page", 2);
+        result.put("pageSize", 10);
+        
+        productService = new ProductService(null, null, null, null, null, null, null) {
+            @Override
+            public Map<String, Object> findAll(Long categoryId, boolean includeChildren, String keyword,
+                                               Integer page, Integer pageSize) {
+                return result;
+            }
+        };
+        productController = new ProductController(productService);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        loggerContext.stop();
+    }
+    
+    @Benchmark
+    public Result<Map<String, Object>> legacyLogging() {
+        Long categoryId = 3L;
+        Integer page = 2;
+        Integer pageSize = 10;
+        legacyLogger.info("查询商品列表: categoryId={}, keyword={}, page={}, pageSize={}", categoryId, null, page, pageSize);
+        Map<String, Object> result = productService.findAll(categoryId, false, null, page, pageSize);
+        legacyLogger.debug("商品列表查询完成: total={}", result.get("total"));
+        return Result.success(result);
+    }
+    
+    @Benchmark
+    public Result<Map<String, Object>> sampledLogging() {
+        return productController.findAll(3L, false, null, 2, 10, null);
+    }
+}
@@ -0,0 +1,116 @@
+package com.golden.benchmark.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 闭环 HTTP 压测：固定数量的客户端并发循环请求同一 URL，输出吞吐量和延迟分位数。
+ * 用于对比平台线程池与虚拟线程模式（相同连接池大小）下的吞吐量和 p99 延迟。
+ *
+ * 参数：url [并发数=200] [持续秒数=60] [预热秒数=10]
+ */
+public class HttpLoadTest {
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("用法: HttpLoadTest <url> [concurrency] [durationSeconds] [warmupSeconds]");
+            System.exit(1);
+        }
+        URI uri = URI.create(args[0]);
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, concurrency / 8)))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        
+        System.out.printf("预热 %ds ...%n", warmupSeconds);
+        run(client, request, concurrency, warmupSeconds);
+        System.out.printf("压测 %s，并发 %d，持续 %ds ...%n", uri, concurrency, durationSeconds);
+        Stats stats = run(client, request, concurrency, durationSeconds);
+        stats.print(durationSeconds);
+        System.exit(0);
+    }
+    
+    private static Stats run(HttpClient client, HttpRequest request, int concurrency, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<Stats>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(workers.submit(() -> {
+                Stats stats = new Stats();
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        stats.record(System.nanoTime() - start, response.statusCode() < 400);
+                    } catch (Exception e) {
+                        stats.record(System.nanoTime() - start, false);
+                    }
+                }
+                return stats;
+            }));
+        }
+        Stats total = new Stats();
+        for (Future<Stats> future : futures) {
+            total.merge(future.get());
+        }
+        workers.shutdown();
+        return total;
+    }
+    
+    private static final class Stats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        
+        void record(long nanos, boolean success) {
+            if (!success) {
+                errors++;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+        
+        void merge(Stats other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+        
+        void print(int seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("请求数: %d，错误: %d，吞吐量: %.1f req/s%n", count, errors, (double) count / seconds);
+            System.out.printf("延迟 p50: %.2fms  p90: %.2fms  p99: %.2fms  max: %.2fms%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    count == 0 ? 0 : sorted[count - 1] / 1e6);
+        }
+        
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
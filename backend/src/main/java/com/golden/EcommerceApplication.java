@@ -5,9 +5,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @MapperScan("com.golden.mapper")
+@EnableScheduling
 public class EcommerceApplication {
     private static final Logger logger = LoggerFactory.getLogger(EcommerceApplication.class);
     
@@ -0,0 +1,567 @@
+package com.golden.cache;
+
+import com.golden.dto.CartBatchRequest;
+import com.golden.entity.CartItem;
+import com.golden.mapper.CartItemMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 购物车内存存储（写回模式）
+ * 活跃用户的购物车常驻内存，按用户ID分段加锁。数量变化只修改内存并标记为脏，
+ * 由定时任务合并后批量 upsert 到 cart_items（依赖 uk_user_product 唯一键）；下单前按用户立即刷写。
+ * 新增购物车行和删除操作同步写库，保证购物车项ID稳定。
+ * 写回模式下内存是已加载用户购物车的权威数据，只适用于单实例部署（或按用户ID粘性路由），
+ * 由 cart.write-behind.enabled 开启；关闭时不缓存购物车，每次读取查询数据库，数量变化直接写库，多实例间数据一致。
+ */
+@Component
+public class CartStore {
+    private static final Logger logger = LoggerFactory.getLogger(CartStore.class);
+    private static final int STRIPES = 64;
+    private static final Comparator<CartItem> NEWEST_FIRST = Comparator
+            .comparing(CartItem::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(CartItem::getId, Comparator.reverseOrder());
+    
+    private final CartItemMapper cartItemMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean writeBehind;
+    private final int flushBatchSize;
+    private final long idleEvictMillis;
+    
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Condition[] writesDone = new Condition[STRIPES];
+    private final Map<Long, UserCart> carts = new ConcurrentHashMap<>();
+    // 用户ID -> 定时刷写中尚未写完的批次数，持有分段锁修改
+    private final Map<Long, Integer> writesInFlight = new ConcurrentHashMap<>();
+    
+    // 可观测指标
+    private final AtomicInteger dirtyLines = new AtomicInteger();
+    private final AtomicLong flushedLines = new AtomicLong();
+    private final AtomicLong flushBatches = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile int maxBatchSize;
+    private volatile long lastFlushLagMillis;
+    private volatile long lastFlushAt;
+    
+    private static final class UserCart {
+        // 商品ID -> 购物车行
+        private final Map<Long, CartItem> lines = new HashMap<>();
+        // 待刷写的商品ID
+        private final Set<Long> dirty = new LinkedHashSet<>();
+        private long firstDirtyAt;
+        private volatile long lastAccessAt = System.currentTimeMillis();
+    }
+    
+    public CartStore(CartItemMapper cartItemMapper,
+                     TransactionTemplate transactionTemplate,
+                     @Value("${cart.write-behind.enabled:false}") boolean writeBehind,
+                     @Value("${cart.flush-batch-size:500}") int flushBatchSize,
+                     @Value("${cart.idle-evict-ms:1800000}") long idleEvictMillis) {
+        this.cartItemMapper = cartItemMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.writeBehind = writeBehind;
+        this.flushBatchSize = flushBatchSize;
+        this.idleEvictMillis = idleEvictMillis;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            writesDone[i] = locks[i].newCondition();
+        }
+    }
+    
+    /**
+     * 购物车行副本，按加入时间倒序；product 字段不填充
+     */
+    public List<CartItem> list(Long userId) {
+        ReentrantLock lock = lockOf(userId);
+        lock.lock();
+        try {
+            List<CartItem> items = new ArrayList<>();
+            for (CartItem line : load(userId).lines.values()) {
+                items.add(copy(line));
+            }
+            items.sort(NEWEST_FIRST);
+            return items;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void add(Long userId, Long productId, Integer quantity) {
+        if (!writeBehind) {
+            CartItem cartItem = new CartItem();
+            cartItem.setUserId(userId);
+            cartItem.setProductId(productId);
+            cartItem.setQuantity(quantity);
+            cartItemMapper.insert(cartItem);
+            return;
+        }
+        ReentrantLock lock = lockOf(userId);
+        lock.lock();
+        try {
+            UserCart cart = load(userId);
+            CartItem line = cart.lines.get(productId);
+            if (line != null) {
+                line.setQuantity(line.getQuantity() + quantity);
+                markDirty(cart, productId);
+                return;
+            }
+            CartItem cartItem = new CartItem();
+            cartItem.setUserId(userId);
+            cartItem.setProductId(productId);
+            cartItem.setQuantity(quantity);
+            cartItemMapper.insert(cartItem);
+            cartItem.setCreatedAt(LocalDateTime.now());
+            cart.lines.put(productId, cartItem);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 修改购物车行数量
+     *
+     * @return 购物车行不存在时返回 false
+     */
+    public boolean setQuantity(Long userId, Long itemId, Integer quantity) {
+        if (!writeBehind) {
+            CartItem cartItem = new CartItem();
+            cartItem.setId(itemId);
+            cartItem.setUserId(userId);
+            cartItem.setQuantity(quantity);
+            return cartItemMapper.update(cartItem) > 0;
+        }
+        ReentrantLock lock = lockOf(userId);
+        lock.lock();
+        try {
+            UserCart cart = load(userId);
+            CartItem line = findLine(cart, itemId);
+            if (line == null) {
+                return false;
+            }
+            line.setQuantity(quantity);
+            markDirty(cart, line.getProductId());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void remove(Long userId, Long itemId) {
+        ReentrantLock lock = lockOf(userId);
+        lock.lock();
+        try {
+            UserCart cart = load(userId);
+            CartItem line = findLine(cart, itemId);
+            if (line != null) {
+                cart.lines.remove(line.getProductId());
+                clearDirty(cart, line.getProductId());
+                cartItemMapper.delete(itemId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 批量操作购物车：全部操作先在内存中合并，再在同一事务内用一条 DELETE 删除所有移除的行、
+     * 一条 upsert 写入所有新增/修改的行，有新增行时再查询一次取回购物车项ID；
+     * 事务提交后才修改内存，写库失败时内存保持不变。
+     */
+    public void applyBatch(Long userId, List<CartBatchRequest.Operation> operations) {
+        ReentrantLock lock = lockOf(userId);
+        lock.lock();
+        try {
+            UserCart cart = load(userId);
+            Map<Long, Integer> target = new LinkedHashMap<>();
+            Set<Long> removed = new LinkedHashSet<>();
+            for (CartBatchRequest.Operation operation : operations) {
+                Long productId = operation.getProductId();
+                if ("remove".equals(operation.getOp())) {
+                    target.remove(productId);
+                    removed.add(productId);
+                    continue;
+                }
+                if (operation.getQuantity() == null || operation.getQuantity() <= 0) {
+                    throw new RuntimeException("商品数量无效");
+                }
+                int current;
+                if (target.containsKey(productId)) {
+                    current = target.get(productId);
+                } else if (removed.contains(productId)) {
+                    current = 0;
+                } else {
+                    CartItem line = cart.lines.get(productId);
+                    current = line == null ? 0 : line.getQuantity();
+                }
+                target.put(productId, "add".equals(operation.getOp()) ? current + operation.getQuantity()
+                        : operation.getQuantity());
+                removed.remove(productId);
+            }
+            
+            removed.removeIf(productId -> !cart.lines.containsKey(productId));
+            List<CartItem> upserts = new ArrayList<>(target.size());
+            boolean hasNewLines = false;
+            for (Map.Entry<Long, Integer> entry : target.entrySet()) {
+                CartItem item = new CartItem();
+                item.setUserId(userId);
+                item.setProductId(entry.getKey());
+                item.setQuantity(entry.getValue());
+                upserts.add(item);
+                hasNewLines |= !cart.lines.containsKey(entry.getKey());
+            }
+            boolean reload = hasNewLines;
+            List<CartItem> stored = transactionTemplate.execute(status -> {
+                if (!removed.isEmpty()) {
+                    cartItemMapper.deleteByUserIdAndProductIds(userId, new ArrayList<>(removed));
+                }
+                if (!upserts.isEmpty()) {
+                    cartItemMapper.batchUpsert(upserts);
+                }
+                return reload ? cartItemMapper.findByUserId(userId) : null;
+            });
+            
+            for (Long productId : removed) {
+                cart.lines.remove(productId);
+                clearDirty(cart, productId);
+            }
+            for (CartItem item : upserts) {
+                CartItem line = cart.lines.get(item.getProductId());
+                if (line != null) {
+                    line.setQuantity(item.getQuantity());
+                    clearDirty(cart, item.getProductId());
+                }
+            }
+            if (stored != null) {
+                for (CartItem item : stored) {
+                    if (target.containsKey(item.getProductId()) && !cart.lines.containsKey(item.getProductId())) {
+                        item.setProduct(null);
+                        cart.lines.put(item.getProductId(), item);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void clear(Long userId) {
+        ReentrantLock lock = lockOf(userId);
+        lock.lock();
+        try {
+            cartItemMapper.deleteByUserId(userId);
+            UserCart cart = carts.remove(userId);
+            if (cart != null) {
+                dirtyLines.addAndGet(-cart.dirty.size());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 丢弃内存中的购物车（下单事务已在数据库中清空购物车时调用）
+     */
+    public void evict(Long userId) {
+        ReentrantLock lock = lockOf(userId);
+        lock.lock();
+        try {
+            UserCart cart = carts.remove(userId);
+            if (cart != null) {
+                dirtyLines.addAndGet(-cart.dirty.size());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 立即刷写某个用户的脏数据（下单前调用）。
+     * 在事务内调用时，若事务回滚则把刷写过的行重新标记为脏。
+     */
+    public void flush(Long userId) {
+        ReentrantLock lock = lockOf(userId);
+        lock.lock();
+        try {
+            // 等待定时刷写中该用户的旧快照写完，避免旧数量在下单读取购物车之后覆盖新数量
+            while (writesInFlight.containsKey(userId)) {
+                writesDone[stripe(userId)].awaitUninterruptibly();
+            }
+            UserCart cart = carts.get(userId);
+            if (cart == null || cart.dirty.isEmpty()) {
+                return;
+            }
+            long lag = System.currentTimeMillis() - cart.firstDirtyAt;
+            List<CartItem> batch = drain(cart);
+            try {
+                write(batch, lag);
+            } catch (RuntimeException e) {
+                flushFailures.incrementAndGet();
+                batch.forEach(item -> markDirty(cart, item.getProductId()));
+                throw e;
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            remark(userId, batch);
+                        }
+                    }
+                });
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 定时批量刷写所有用户的脏数据，并淘汰长时间未访问的干净购物车。
+     * 每个用户在其分段锁内取出并清空脏行快照，释放锁后再批量写库，写库期间不阻塞该分段上的购物车操作；
+     * 写库失败时把快照中仍存在的行重新标记为脏，成功后再核对写库期间被并发修改或删除的行。
+     */
+    @Scheduled(fixedDelayString = "${cart.flush-interval-ms:1000}")
+    public void flushAll() {
+        if (!writeBehind) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<CartItem> batch = new ArrayList<>();
+        long lag = 0;
+        for (Long userId : carts.keySet()) {
+            ReentrantLock lock = lockOf(userId);
+            lock.lock();
+            try {
+                UserCart cart = carts.get(userId);
+                if (cart == null) {
+                    continue;
+                }
+                if (!cart.dirty.isEmpty()) {
+                    lag = Math.max(lag, now - cart.firstDirtyAt);
+                    batch.addAll(drain(cart));
+                    writesInFlight.merge(userId, 1, Integer::sum);
+                } else if (now - cart.lastAccessAt > idleEvictMillis) {
+                    carts.remove(userId);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (batch.size() >= flushBatchSize) {
+                writeBatch(batch, lag);
+                batch = new ArrayList<>();
+                lag = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, lag);
+        }
+    }
+    
+    public Map<String, Object> stats() {
+        long now = System.currentTimeMillis();
+        long oldestDirtyAge = 0;
+        int dirtyUsers = 0;
+        for (UserCart cart : carts.values()) {
+            if (!cart.dirty.isEmpty()) {
+                dirtyUsers++;
+                oldestDirtyAge = Math.max(oldestDirtyAge, now - cart.firstDirtyAt);
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("writeBehind", writeBehind);
+        result.put("cachedCarts", carts.size());
+        result.put("dirtyUsers", dirtyUsers);
+        result.put("queueDepth", dirtyLines.get());
+        result.put("oldestDirtyAgeMs", oldestDirtyAge);
+        result.put("lastFlushLagMs", lastFlushLagMillis);
+        result.put("lastFlushAt", lastFlushAt);
+        result.put("lastBatchSize", lastBatchSize);
+        result.put("maxBatchSize", maxBatchSize);
+        result.put("flushBatches", flushBatches.get());
+        result.put("flushedLines", flushedLines.get());
+        result.put("flushFailures", flushFailures.get());
+        return result;
+    }
+    
+    // 以下方法需持有用户所在分段的锁
+    
+    /**
+     * 取用户购物车，未开启写回时每次从数据库读取且不放入内存
+     */
+    private UserCart load(Long userId) {
+        UserCart cart = carts.get(userId);
+        if (cart == null) {
+            cart = new UserCart();
+            for (CartItem item : cartItemMapper.findByUserId(userId)) {
+                item.setProduct(null);
+                cart.lines.put(item.getProductId(), item);
+            }
+            if (writeBehind) {
+                carts.put(userId, cart);
+            }
+        }
+        cart.lastAccessAt = System.currentTimeMillis();
+        return cart;
+    }
+    
+    private CartItem findLine(UserCart cart, Long itemId) {
+        for (CartItem line : cart.lines.values()) {
+            if (line.getId().equals(itemId)) {
+                return line;
+            }
+        }
+        return null;
+    }
+    
+    private void markDirty(UserCart cart, Long productId) {
+        if (cart.dirty.isEmpty()) {
+            cart.firstDirtyAt = System.currentTimeMillis();
+        }
+        if (cart.dirty.add(productId)) {
+            dirtyLines.incrementAndGet();
+        }
+    }
+    
+    private void clearDirty(UserCart cart, Long productId) {
+        if (cart.dirty.remove(productId)) {
+            dirtyLines.decrementAndGet();
+        }
+    }
+    
+    private List<CartItem> drain(UserCart cart) {
+        List<CartItem> batch = new ArrayList<>(cart.dirty.size());
+        for (Long productId : cart.dirty) {
+            batch.add(copy(cart.lines.get(productId)));
+        }
+        dirtyLines.addAndGet(-cart.dirty.size());
+        cart.dirty.clear();
+        return batch;
+    }
+    
+    private void write(List<CartItem> batch, long lagMillis) {
+        cartItemMapper.batchUpsert(batch);
+        flushBatches.incrementAndGet();
+        flushedLines.addAndGet(batch.size());
+        lastBatchSize = batch.size();
+        maxBatchSize = Math.max(maxBatchSize, batch.size());
+        lastFlushLagMillis = lagMillis;
+        lastFlushAt = System.currentTimeMillis();
+    }
+    
+    private void remark(Long userId, List<CartItem> batch) {
+        ReentrantLock lock = lockOf(userId);
+        lock.lock();
+        try {
+            UserCart cart = carts.get(userId);
+            if (cart == null) {
+                return;
+            }
+            for (CartItem item : batch) {
+                if (cart.lines.containsKey(item.getProductId())) {
+                    markDirty(cart, item.getProductId());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 写入定时刷写的一批快照，写库时不持有分段锁，写完后逐个用户加锁核对
+     */
+    private void writeBatch(List<CartItem> batch, long lagMillis) {
+        Map<Long, List<CartItem>> byUser = new LinkedHashMap<>();
+        for (CartItem item : batch) {
+            byUser.computeIfAbsent(item.getUserId(), k -> new ArrayList<>()).add(item);
+        }
+        boolean succeeded;
+        try {
+            write(batch, lagMillis);
+            succeeded = true;
+        } catch (RuntimeException e) {
+            flushFailures.incrementAndGet();
+            logger.warn("购物车批量刷写失败，稍后重试: lines={}, error={}", batch.size(), e.getMessage());
+            succeeded = false;
+        }
+        for (Map.Entry<Long, List<CartItem>> entry : byUser.entrySet()) {
+            Long userId = entry.getKey();
+            ReentrantLock lock = lockOf(userId);
+            lock.lock();
+            try {
+                if (succeeded) {
+                    reconcile(userId, entry.getValue());
+                } else {
+                    remark(userId, entry.getValue());
+                }
+            } finally {
+                writesInFlight.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+                writesDone[stripe(userId)].signalAll();
+                lock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * 核对写库期间发生的并发修改：行已被删除（或购物车已清空）时删除刚写回的行，
+     * 数量已变化时重新标记为脏，由下一轮刷写覆盖
+     */
+    private void reconcile(Long userId, List<CartItem> written) {
+        try {
+            UserCart cart = carts.get(userId);
+            List<Long> stale = new ArrayList<>();
+            for (CartItem item : written) {
+                CartItem line = cart == null ? null : cart.lines.get(item.getProductId());
+                if (line == null) {
+                    stale.add(item.getProductId());
+                } else if (!line.getQuantity().equals(item.getQuantity())) {
+                    markDirty(cart, item.getProductId());
+                }
+            }
+            if (!stale.isEmpty()) {
+                cartItemMapper.deleteByUserIdAndProductIds(userId, stale);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("购物车刷写后清理已删除行失败: userId={}, error={}", userId, e.getMessage());
+        }
+    }
+    
+    private CartItem copy(CartItem line) {
+        CartItem item = new CartItem();
+        item.setId(line.getId());
+        item.setUserId(line.getUserId());
+        item.setProductId(line.getProductId());
+        item.setQuantity(line.getQuantity());
+        item.setCreatedAt(line.getCreatedAt());
+        item.setUpdatedAt(line.getUpdatedAt());
+        return item;
+    }
+    
+    private int stripe(Long userId) {
+        return (Long.hashCode(userId) & 0x7fffffff) % STRIPES;
+    }
+    
+    private ReentrantLock lockOf(Long userId) {
+        return locks[stripe(userId)];
+    }
+}
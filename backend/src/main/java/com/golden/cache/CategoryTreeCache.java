@@ -0,0 +1,181 @@
+package com.golden.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.golden.dto.CategoryNode;
+import com.golden.entity.Category;
+import com.golden.mapper.CategoryMapper;
+import com.golden.util.Result;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分类树内存快照
+ * 启动时及定时从 categories 表构建不可变快照：子分类列表、祖先路径、后代ID集合，
+ * 以及预先序列化好的树形 JSON 和对应的 ETag。刷新时整体替换快照，读取无锁。
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryTreeCache {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryTreeCache.class);
+    private static final long ROOT_ID = 0L;
+    
+    private final CategoryMapper categoryMapper;
+    private final ObjectMapper objectMapper;
+    
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+    
+    @Getter
+    public static final class Snapshot {
+        private final List<Category> all;
+        private final Map<Long, List<Category>> children;
+        private final Map<Long, List<Long>> paths;
+        private final Map<Long, Set<Long>> descendants;
+        private final byte[] treeJson;
+        private final String etag;
+        
+        private Snapshot(List<Category> all, Map<Long, List<Category>> children, Map<Long, List<Long>> paths,
+                         Map<Long, Set<Long>> descendants, byte[] treeJson, String etag) {
+            this.all = all;
+            this.children = children;
+            this.paths = paths;
+            this.descendants = descendants;
+            this.treeJson = treeJson;
+            this.etag = etag;
+        }
+    }
+    
+    public Snapshot get() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+    
+    public List<Category> findAll() {
+        return get().all;
+    }
+    
+    public List<Category> findByParentId(Long parentId) {
+        return get().children.getOrDefault(parentId, Collections.emptyList());
+    }
+    
+    /**
+     * 分类自身及其所有后代分类ID，分类不存在时只返回自身
+     */
+    public Set<Long> descendantIds(Long categoryId) {
+        return get().descendants.getOrDefault(categoryId, Set.of(categoryId));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${cache.category.refresh-ms:60000}", fixedDelayString = "${cache.category.refresh-ms:60000}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            List<Category> all = Collections.unmodifiableList(categoryMapper.findAll());
+            Snapshot current = snapshot;
+            if (current != null && current.all.equals(all)) {
+                return;
+            }
+            snapshot = build(all);
+            logger.info("分类树快照已刷新: categories={}, etag={}", all.size(), snapshot.etag);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    private Snapshot build(List<Category> all) {
+        Map<Long, List<Category>> children = new HashMap<>();
+        for (Category category : all) {
+            Long parentId = category.getParentId() == null ? ROOT_ID : category.getParentId();
+            children.computeIfAbsent(parentId, k -> new ArrayList<>()).add(category);
+        }
+        children.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        
+        // 从顶级分类广度优先遍历，计算路径和节点；父分类被禁用的子树不可达，不进入快照
+        Map<Long, List<Long>> paths = new HashMap<>();
+        Map<Long, CategoryNode> nodes = new HashMap<>();
+        List<CategoryNode> roots = new ArrayList<>();
+        List<Long> order = new ArrayList<>();
+        Deque<Category> queue = new ArrayDeque<>(children.getOrDefault(ROOT_ID, Collections.emptyList()));
+        while (!queue.isEmpty()) {
+            Category category = queue.poll();
+            if (paths.containsKey(category.getId())) {
+                continue;
+            }
+            List<Long> parentPath = paths.getOrDefault(category.getParentId(), Collections.emptyList());
+            List<Long> path = new ArrayList<>(parentPath);
+            path.add(category.getId());
+            paths.put(category.getId(), Collections.unmodifiableList(path));
+            order.add(category.getId());
+            
+            CategoryNode node = new CategoryNode();
+            node.setId(category.getId());
+            node.setName(category.getName());
+            node.setParentId(category.getParentId());
+            node.setSortOrder(category.getSortOrder());
+            node.setPath(path);
+            nodes.put(category.getId(), node);
+            CategoryNode parent = nodes.get(category.getParentId());
+            if (parent != null) {
+                parent.getChildren().add(node);
+            } else {
+                roots.add(node);
+            }
+            queue.addAll(children.getOrDefault(category.getId(), Collections.emptyList()));
+        }
+        
+        // 逆序遍历时子节点先于父节点，累加后代集合
+        Map<Long, Set<Long>> descendants = new HashMap<>();
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Long id = order.get(i);
+            Set<Long> set = descendants.computeIfAbsent(id, k -> new LinkedHashSet<>());
+            set.add(id);
+            List<Long> path = paths.get(id);
+            if (path.size() > 1) {
+                descendants.computeIfAbsent(path.get(path.size() - 2), k -> new LinkedHashSet<>()).addAll(set);
+            }
+        }
+        descendants.replaceAll((k, v) -> Collections.unmodifiableSet(new HashSet<>(v)));
+        
+        byte[] treeJson;
+        try {
+            treeJson = objectMapper.writeValueAsBytes(Result.success(roots));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("分类树序列化失败", e);
+        }
+        return new Snapshot(all, children, paths, descendants, treeJson, "\"" + sha256(treeJson) + "\"");
+    }
+    
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
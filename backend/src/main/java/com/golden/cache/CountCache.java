@@ -0,0 +1,83 @@
+package com.golden.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 列表总数缓存
+ * 按 "表名:过滤条件" 缓存 COUNT(*) 结果，对应表写入时失效，
+ * 让大部分列表请求省掉第二条 COUNT 查询。
+ */
+@Component
+public class CountCache {
+    private static final String SEPARATOR = ":";
+    
+    private final Cache<String, Integer> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    public CountCache(@Value("${cache.count.maximum-size:10000}") long maximumSize,
+                      @Value("${cache.count.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * 读取总数，未命中时执行 counter 查询并缓存
+     *
+     * @param table  统计的表名
+     * @param filter 过滤条件组成的键，如 "user=1"
+     */
+    public int get(String table, String filter, Supplier<Integer> counter) {
+        String key = table + SEPARATOR + filter;
+        Integer total = cache.getIfPresent(key);
+        if (total == null) {
+            // 在缓存锁之外执行 COUNT 查询，避免钉住虚拟线程；查询期间发生过失效则不回填
+            long generation = invalidations.get();
+            total = counter.get();
+            if (generation == invalidations.get()) {
+                cache.put(key, total);
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * 使某个过滤条件的总数失效
+     */
+    public void invalidate(String table, String filter) {
+        invalidations.incrementAndGet();
+        cache.invalidate(table + SEPARATOR + filter);
+    }
+    
+    /**
+     * 使某张表的所有总数失效
+     */
+    public void invalidateTable(String table) {
+        String prefix = table + SEPARATOR;
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+    
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.golden.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 上传文件热点缓存
+ * 缓存小文件（主要是缩略图）的完整内容，按字节数计权重，总容量受 file.serve.hot-cache-bytes 限制，
+ * W-TinyLFU 淘汰使只被访问一两次的文件难以挤掉高频文件。键包含 ETag，文件变化后自然失效。
+ */
+@Component
+public class HotFileCache {
+    private final Cache<String, byte[]> cache;
+    private final long maxEntryBytes;
+    
+    public HotFileCache(@Value("${file.serve.hot-cache-bytes:33554432}") long maximumBytes,
+                        @Value("${file.serve.hot-entry-max-bytes:262144}") long maxEntryBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, byte[] value) -> value.length)
+                .recordStats()
+                .build();
+        this.maxEntryBytes = maxEntryBytes;
+    }
+    
+    /**
+     * 是否适合放入缓存
+     */
+    public boolean cacheable(long size) {
+        return size <= maxEntryBytes;
+    }
+    
+    /**
+     * 读取文件内容，未命中时在缓存锁之外读盘后回填
+     */
+    public byte[] get(String key, Path file) throws IOException {
+        byte[] content = cache.getIfPresent(key);
+        if (content == null) {
+            content = Files.readAllBytes(file);
+            cache.put(key, content);
+        }
+        return content;
+    }
+    
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("weightedBytes", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+}
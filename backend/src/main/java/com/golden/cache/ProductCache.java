@@ -0,0 +1,104 @@
+package com.golden.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.golden.entity.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 商品详情本地缓存
+ * 按商品ID缓存 Product 实体，容量淘汰（W-TinyLFU）+ 写入后过期，
+ * 商品修改、删除以及下单扣减库存后失效。
+ * 缓存中的对象为共享实例，调用方不应修改。
+ */
+@Component
+public class ProductCache {
+    private final Cache<Long, Product> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    public ProductCache(@Value("${cache.product.maximum-size:10000}") long maximumSize,
+                        @Value("${cache.product.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * 读穿缓存：未命中时调用 loader 加载，loader 返回 null 时不缓存。
+     * 加载在缓存的 compute 锁之外执行，避免数据库 I/O 期间持有 synchronized 锁钉住虚拟线程。
+     */
+    public Product get(Long id, Function<Long, Product> loader) {
+        Product product = cache.getIfPresent(id);
+        if (product == null) {
+            long generation = invalidations.get();
+            product = loader.apply(id);
+            // 加载期间发生过失效则不回填，避免把旧数据写回缓存
+            if (product != null && generation == invalidations.get()) {
+                cache.put(id, product);
+            }
+        }
+        return product;
+    }
+    
+    /**
+     * 批量读穿缓存：未命中的ID一次交给 loader 加载，返回 商品ID -> 商品（不存在的ID不在结果中）
+     */
+    public Map<Long, Product> getAll(Collection<Long> ids, Function<List<Long>, List<Product>> loader) {
+        Map<Long, Product> products = new HashMap<>(cache.getAllPresent(ids));
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (!products.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long generation = invalidations.get();
+            List<Product> loaded = loader.apply(missing);
+            boolean fresh = generation == invalidations.get();
+            for (Product product : loaded) {
+                products.put(product.getId(), product);
+                if (fresh) {
+                    cache.put(product.getId(), product);
+                }
+            }
+        }
+        return products;
+    }
+    
+    public void invalidate(Long id) {
+        invalidations.incrementAndGet();
+        cache.invalidate(id);
+    }
+    
+    public void invalidateAll(Collection<Long> ids) {
+        invalidations.incrementAndGet();
+        cache.invalidateAll(ids);
+    }
+    
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("loadFailureCount", stats.loadFailureCount());
+        return result;
+    }
+}
@@ -0,0 +1,221 @@
+package com.golden.cache;
+
+import com.golden.dto.RatingSummary;
+import com.golden.entity.ProductRatingStats;
+import com.golden.mapper.ProductRatingStatsMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品评分汇总内存存储
+ * 以 product_rating_stats 表为准，启动时及定时全量加载；发表评价的事务提交后增量累加。
+ * 数据放在开放寻址的基本类型数组中（商品ID、评分总和、五档星级计数），
+ * 每个商品约占 40 字节，不产生装箱对象，一页商品的评分可直接从内存批量读取。
+ * 多实例部署时其他实例写入的评价在下次定时刷新后可见。
+ */
+@Component
+@RequiredArgsConstructor
+public class RatingStatsStore {
+    private static final Logger logger = LoggerFactory.getLogger(RatingStatsStore.class);
+    private static final int STAR_LEVELS = 5;
+    private static final int INITIAL_CAPACITY = 1024;
+    
+    private final ProductRatingStatsMapper productRatingStatsMapper;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private Table table = new Table(INITIAL_CAPACITY);
+    
+    /**
+     * 开放寻址哈希表，线性探测；商品ID为正数，keys 中 0 表示空位
+     */
+    private static final class Table {
+        private final long[] keys;
+        private final long[] sums;
+        private final int[] stars;
+        private final int mask;
+        private int size;
+        
+        private Table(int capacity) {
+            keys = new long[capacity];
+            sums = new long[capacity];
+            stars = new int[capacity * STAR_LEVELS];
+            mask = capacity - 1;
+        }
+        
+        private int find(long productId) {
+            int index = hash(productId) & mask;
+            while (keys[index] != 0) {
+                if (keys[index] == productId) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+        
+        /**
+         * 返回商品所在位置，不存在时占用一个空位；调用方需保证装载因子不超过 1/2
+         */
+        private int slot(long productId) {
+            int index = hash(productId) & mask;
+            while (keys[index] != 0) {
+                if (keys[index] == productId) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = productId;
+            size++;
+            return index;
+        }
+        
+        private boolean full() {
+            return (size + 1) * 2 > keys.length;
+        }
+        
+        private Table grow() {
+            Table bigger = new Table(keys.length * 2);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    int index = bigger.slot(keys[i]);
+                    bigger.sums[index] = sums[i];
+                    System.arraycopy(stars, i * STAR_LEVELS, bigger.stars, index * STAR_LEVELS, STAR_LEVELS);
+                }
+            }
+            return bigger;
+        }
+        
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${cache.rating.refresh-ms:300000}", fixedDelayString = "${cache.rating.refresh-ms:300000}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            Table[] loading = {new Table(INITIAL_CAPACITY)};
+            productRatingStatsMapper.scanAll(context -> {
+                ProductRatingStats row = context.getResultObject();
+                if (loading[0].full()) {
+                    loading[0] = loading[0].grow();
+                }
+                Table target = loading[0];
+                int index = target.slot(row.getProductId());
+                target.sums[index] = row.getRatingSum();
+                int base = index * STAR_LEVELS;
+                target.stars[base] = row.getStar1();
+                target.stars[base + 1] = row.getStar2();
+                target.stars[base + 2] = row.getStar3();
+                target.stars[base + 3] = row.getStar4();
+                target.stars[base + 4] = row.getStar5();
+            });
+            
+            // 加载期间提交的评价若未进入本次快照，会在下次刷新时补齐
+            lock.writeLock().lock();
+            try {
+                table = loading[0];
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("商品评分汇总已加载: products={}, cost={}ms", loading[0].size, System.currentTimeMillis() - start);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    /**
+     * 累加一条评价，应在评价及汇总表写入的事务提交后调用
+     */
+    public void record(Long productId, int rating) {
+        if (productId == null || productId <= 0 || rating < 1 || rating > STAR_LEVELS) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (table.find(productId) < 0 && table.full()) {
+                table = table.grow();
+            }
+            int index = table.slot(productId);
+            table.sums[index] += rating;
+            table.stars[index * STAR_LEVELS + rating - 1]++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 批量读取评分汇总，按入参顺序返回；没有评价的商品计数为 0
+     */
+    public Map<Long, RatingSummary> summaries(Collection<Long> productIds) {
+        Map<Long, RatingSummary> result = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Long productId : productIds) {
+                if (productId != null && !result.containsKey(productId)) {
+                    result.put(productId, summarize(productId));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+    
+    public RatingSummary summary(Long productId) {
+        lock.readLock().lock();
+        try {
+            return summarize(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private RatingSummary summarize(Long productId) {
+        int[] stars = new int[STAR_LEVELS];
+        long sum = 0;
+        int index = productId > 0 ? table.find(productId) : -1;
+        if (index >= 0) {
+            System.arraycopy(table.stars, index * STAR_LEVELS, stars, 0, STAR_LEVELS);
+            sum = table.sums[index];
+        }
+        int count = 0;
+        for (int star : stars) {
+            count += star;
+        }
+        RatingSummary summary = new RatingSummary();
+        summary.setProductId(productId);
+        summary.setCount(count);
+        summary.setAverage(count == 0 ? 0.0 : Math.round(sum * 10.0 / count) / 10.0);
+        summary.setStars(stars);
+        return summary;
+    }
+    
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("products", table.size);
+            result.put("capacity", table.keys.length);
+            result.put("bytes", (long) table.keys.length * (Long.BYTES * 2 + Integer.BYTES * STAR_LEVELS));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.golden.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.golden.entity.Review;
+import com.golden.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 商品评价首页缓存
+ * 只缓存默认每页条数下的前几页评价（含关联的用户名和头像），绝大多数访问只看第一页。
+ * 按估算字节数淘汰，评价内容和图片 JSON 可能很长，不能只按条数限制。
+ * 发表评价后失效该商品的缓存页；用户修改头像等资料后失效包含其评价的缓存页。
+ * 失效后的一小段时间内不回填，避免从尚未追上的从库把旧数据写回缓存。
+ * 缓存中的列表为共享实例，调用方不应修改。
+ */
+@Component
+public class ReviewPageCache {
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int REVIEW_OVERHEAD_BYTES = 160;
+    
+    private final Cache<PageKey, List<Review>> cache;
+    // 最近失效的商品，过期前不回填缓存
+    private final Cache<Long, Boolean> recentlyInvalidated;
+    private final int cachedPages;
+    private final int pageSize;
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    private record PageKey(long productId, int page) {
+    }
+    
+    public ReviewPageCache(@Value("${cache.review.max-bytes:33554432}") long maxBytes,
+                           @Value("${cache.review.ttl-seconds:300}") long ttlSeconds,
+                           @Value("${cache.review.cached-pages:2}") int cachedPages,
+                           @Value("${cache.review.page-size:10}") int pageSize,
+                           @Value("${app.datasource.replica.max-lag-seconds:5}") long fillDelaySeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((PageKey key, List<Review> reviews) -> weigh(reviews))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.recentlyInvalidated = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofSeconds(Math.max(fillDelaySeconds, 1)))
+                .build();
+        this.cachedPages = cachedPages;
+        this.pageSize = pageSize;
+    }
+    
+    public boolean cacheable(Integer page, Integer pageSize) {
+        return page != null && page >= 1 && page <= cachedPages
+                && pageSize != null && pageSize == this.pageSize;
+    }
+    
+    /**
+     * 读穿缓存，调用前应先用 {@link #cacheable} 判断；加载在缓存锁之外执行
+     */
+    public List<Review> get(Long productId, Integer page, Supplier<List<Review>> loader) {
+        PageKey key = new PageKey(productId, page);
+        List<Review> reviews = cache.getIfPresent(key);
+        if (reviews == null) {
+            long generation = invalidations.get();
+            reviews = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+            // 加载期间发生过失效、或商品刚失效（从库可能还是旧数据）时不回填
+            if (generation == invalidations.get() && recentlyInvalidated.getIfPresent(productId) == null) {
+                cache.put(key, reviews);
+            }
+        }
+        return reviews;
+    }
+    
+    public void invalidateProduct(Long productId) {
+        invalidations.incrementAndGet();
+        recentlyInvalidated.put(productId, Boolean.TRUE);
+        for (int page = 1; page <= cachedPages; page++) {
+            cache.invalidate(new PageKey(productId, page));
+        }
+    }
+    
+    /**
+     * 失效包含该用户评价的所有缓存页。资料修改很少发生，直接遍历缓存而不维护用户到商品的反向索引
+     */
+    public void invalidateUser(Long userId) {
+        invalidations.incrementAndGet();
+        cache.asMap().entrySet().removeIf(entry -> {
+            for (Review review : entry.getValue()) {
+                if (userId.equals(review.getUserId())) {
+                    recentlyInvalidated.put(entry.getKey().productId(), Boolean.TRUE);
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+    
+    private static int weigh(List<Review> reviews) {
+        long bytes = ENTRY_OVERHEAD_BYTES;
+        for (Review review : reviews) {
+            bytes += REVIEW_OVERHEAD_BYTES + charBytes(review.getContent()) + charBytes(review.getImages());
+            User user = review.getUser();
+            if (user != null) {
+                bytes += charBytes(user.getUsername()) + charBytes(user.getAvatar());
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * 按每字符 2 字节估算（中文内容无法使用 Latin-1 紧凑存储）
+     */
+    private static long charBytes(String value) {
+        return value == null ? 0 : 2L * value.length();
+    }
+    
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("weightedBytes", cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L));
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+package com.golden.config;
+
+import com.golden.metrics.MetricsRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 数据源配置
+ * 主库连接池读取 spring.datasource / spring.datasource.hikari；
+ * 配置 app.datasource.replica.enabled=true 后增加从库连接池（app.datasource.replica / app.datasource.replica.hikari），
+ * 只读事务路由到从库。对外暴露的 DataSource 统一包一层 LazyConnectionDataSourceProxy，
+ * 事务中没有执行语句（如全部命中本地缓存）时不占用物理连接。
+ */
+@Configuration
+public class DataSourceConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+    
+    @Bean
+    @ConditionalOnProperty("app.datasource.replica.enabled")
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username}") String username,
+                                              @Value("${app.datasource.replica.password}") String password,
+                                              @Value("${app.datasource.replica.driver-class-name:}") String driverClassName) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        if (!driverClassName.isEmpty()) {
+            dataSource.setDriverClassName(driverClassName);
+        }
+        dataSource.setPoolName(ReadWriteRoutingDataSource.REPLICA);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+    
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                        @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                                        MetricsRegistry metricsRegistry) {
+        DataSource replica = replicaDataSource.getIfAvailable();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primaryDataSource);
+        if (replica != null) {
+            targets.put(ReadWriteRoutingDataSource.REPLICA, replica);
+        }
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(replica != null);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        
+        metricsRegistry.register("datasource_routes_total", "counter", "按目标库统计的取连接次数（fallback 为从库不可用时回退主库）",
+                "target", routingDataSource::routeCounts);
+        return routingDataSource;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+    
+    @Bean
+    @ConditionalOnProperty("app.datasource.replica.enabled")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               ReadWriteRoutingDataSource routingDataSource,
+                                               @Value("${app.datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+                                               @Value("${app.datasource.replica.lag-check-enabled:true}") boolean lagCheckEnabled,
+                                               MetricsRegistry metricsRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaDataSource, routingDataSource, maxLagSeconds, lagCheckEnabled);
+        metricsRegistry.register("datasource_replica_lag_seconds", "gauge", "从库复制延迟（秒），-1 表示未知",
+                "target", () -> Map.of(ReadWriteRoutingDataSource.REPLICA, monitor.getLagSeconds()));
+        metricsRegistry.register("datasource_replica_healthy", "gauge", "从库是否承接只读查询（1 是，0 否）",
+                "target", () -> Map.of(ReadWriteRoutingDataSource.REPLICA, routingDataSource.isReplicaHealthy() ? 1 : 0));
+        return monitor;
+    }
+}
@@ -47,6 +47,16 @@ public class GlobalExceptionHandler {
         return Result.error(400, message);
     }
     
+    /**
+     * 处理非法参数异常（如无效的分页游标）
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Result<Void> handleIllegalArgumentException(IllegalArgumentException e) {
+        logger.warn("非法参数: {}", e.getMessage());
+        return Result.error(400, e.getMessage());
+    }
+    
     /**
      * 处理运行时异常
      */
@@ -0,0 +1,115 @@
+package com.golden.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.golden.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JWT 认证过滤器
+ * 每个请求只校验一次 Authorization 头中的 Token，校验通过的 Token 缓存到其过期时间为止，
+ * 解析出的用户ID放入请求属性 {@link #USER_ID_ATTRIBUTE}，
+ * 控制器参数标注 {@link CurrentUserId} 后由 {@link WebConfig} 注册的参数解析器注入。
+ * 校验失败只累加计数，不打印堆栈。
+ */
+@Component
+public class JwtAuthFilter extends OncePerRequestFilter {
+    public static final String USER_ID_ATTRIBUTE = "userId";
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    private final JwtUtil jwtUtil;
+    private final Cache<String, VerifiedToken> verified;
+    
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    
+    private record VerifiedToken(Long userId, long expiresAtMillis) {
+    }
+    
+    public JwtAuthFilter(JwtUtil jwtUtil, @Value("${jwt.cache-size:50000}") long cacheSize) {
+        this.jwtUtil = jwtUtil;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long remaining = value.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            Long userId = resolveUserId(header.substring(BEARER_PREFIX.length()));
+            if (userId != null) {
+                request.setAttribute(USER_ID_ATTRIBUTE, userId);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+    
+    private Long resolveUserId(String token) {
+        VerifiedToken cached = verified.getIfPresent(token);
+        if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+            cacheHits.increment();
+            return cached.userId();
+        }
+        try {
+            Claims claims = jwtUtil.parseClaims(token);
+            verifications.increment();
+            Long userId = Long.parseLong(claims.getSubject());
+            if (claims.getExpiration() != null) {
+                verified.put(token, new VerifiedToken(userId, claims.getExpiration().getTime()));
+            }
+            return userId;
+        } catch (ExpiredJwtException e) {
+            expired.increment();
+        } catch (JwtException | IllegalArgumentException e) {
+            invalid.increment();
+        }
+        return null;
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cachedTokens", verified.estimatedSize());
+        result.put("cacheHits", cacheHits.sum());
+        result.put("verifications", verifications.sum());
+        result.put("expired", expired.sum());
+        result.put("invalid", invalid.sum());
+        return result;
+    }
+}
@@ -0,0 +1,68 @@
+package com.golden.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离路由数据源
+ * 只读事务（@Transactional(readOnly = true)）路由到从库，其余一律走主库；
+ * 从库不可用或复制延迟超过阈值时（由 {@link ReplicaLagMonitor} 判定）只读事务也回退到主库。
+ * 必须包在 LazyConnectionDataSourceProxy 中使用：事务开始时只读标记尚未设置，
+ * 延迟到第一条语句执行时再取物理连接，路由才能看到只读标记。
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+    
+    private final boolean replicaConfigured;
+    private volatile boolean replicaHealthy;
+    
+    private final LongAdder primaryRoutes = new LongAdder();
+    private final LongAdder replicaRoutes = new LongAdder();
+    private final LongAdder fallbackRoutes = new LongAdder();
+    
+    public ReadWriteRoutingDataSource(boolean replicaConfigured) {
+        this.replicaConfigured = replicaConfigured;
+        this.replicaHealthy = replicaConfigured;
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaConfigured && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (replicaHealthy) {
+                replicaRoutes.increment();
+                return REPLICA;
+            }
+            fallbackRoutes.increment();
+        }
+        primaryRoutes.increment();
+        return PRIMARY;
+    }
+    
+    public boolean isReplicaConfigured() {
+        return replicaConfigured;
+    }
+    
+    public boolean isReplicaHealthy() {
+        return replicaHealthy;
+    }
+    
+    void setReplicaHealthy(boolean replicaHealthy) {
+        this.replicaHealthy = replicaHealthy;
+    }
+    
+    /**
+     * 各目标库取连接次数；fallback 为只读事务因从库不可用回退到主库的次数（同时计入 primary）
+     */
+    public Map<String, Long> routeCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put(PRIMARY, primaryRoutes.sum());
+        counts.put(REPLICA, replicaRoutes.sum());
+        counts.put("fallback", fallbackRoutes.sum());
+        return counts;
+    }
+}
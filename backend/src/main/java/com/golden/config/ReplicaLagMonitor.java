@@ -0,0 +1,100 @@
+package com.golden.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 从库复制延迟检测
+ * 定时在从库执行 SHOW REPLICA STATUS（MySQL 8.0.22 以下回退 SHOW SLAVE STATUS），
+ * 延迟超过 max-lag-seconds、复制线程未运行或从库不可达时把只读流量切回主库，恢复后自动切回从库。
+ * 从库账号需要 REPLICATION CLIENT 权限；测试环境用 H2 等非 MySQL 从库时关闭 lag-check-enabled。
+ * 由 DataSourceConfig 在配置了从库时注册为 Bean。
+ */
+public class ReplicaLagMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    
+    private final DataSource replica;
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final long maxLagSeconds;
+    private final boolean lagCheckEnabled;
+    
+    private volatile long lagSeconds = -1;
+    private volatile String lastError;
+    
+    public ReplicaLagMonitor(DataSource replica, ReadWriteRoutingDataSource routingDataSource,
+                             long maxLagSeconds, boolean lagCheckEnabled) {
+        this.replica = replica;
+        this.routingDataSource = routingDataSource;
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagCheckEnabled = lagCheckEnabled;
+    }
+    
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.replica.lag-check-ms:5000}")
+    public void check() {
+        boolean healthy;
+        try (Connection connection = replica.getConnection()) {
+            if (lagCheckEnabled) {
+                Long lag = readLagSeconds(connection);
+                lagSeconds = lag == null ? -1 : lag;
+                healthy = lag != null && lag <= maxLagSeconds;
+            } else {
+                healthy = connection.isValid(2);
+            }
+            lastError = healthy ? null : "复制延迟 " + (lagSeconds < 0 ? "未知（复制未运行）" : lagSeconds + " 秒");
+        } catch (SQLException e) {
+            healthy = false;
+            lastError = e.getMessage();
+        }
+        
+        boolean wasHealthy = routingDataSource.isReplicaHealthy();
+        routingDataSource.setReplicaHealthy(healthy);
+        if (wasHealthy && !healthy) {
+            logger.warn("从库不可用，只读查询切换到主库: reason={}", lastError);
+        } else if (!wasHealthy && healthy) {
+            logger.info("从库恢复，只读查询切回从库: lagSeconds={}", lagSeconds);
+        }
+    }
+    
+    private Long readLagSeconds(Connection connection) throws SQLException {
+        try {
+            return readLagSeconds(connection, "SHOW REPLICA STATUS", "Seconds_Behind_Source");
+        } catch (SQLException e) {
+            return readLagSeconds(connection, "SHOW SLAVE STATUS", "Seconds_Behind_Master");
+        }
+    }
+    
+    private Long readLagSeconds(Connection connection, String sql, String column) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            if (!resultSet.next()) {
+                // 未配置复制
+                return null;
+            }
+            long lag = resultSet.getLong(column);
+            return resultSet.wasNull() ? null : lag;
+        }
+    }
+    
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("replicaHealthy", routingDataSource.isReplicaHealthy());
+        stats.put("lagSeconds", lagSeconds);
+        stats.put("maxLagSeconds", maxLagSeconds);
+        stats.put("lastError", lastError);
+        stats.put("routes", routingDataSource.routeCounts());
+        return stats;
+    }
+}
@@ -0,0 +1,57 @@
+package com.golden.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程执行模式（需 Java 21，默认关闭）
+ * 开启后 Tomcat 请求处理和 @Async 任务都运行在虚拟线程上，阻塞的 JDBC 调用不再占用平台线程池。
+ * 通过 vthreads profile 启用：SPRING_PROFILES_ACTIVE=prod,vthreads，详见 VIRTUAL_THREADS.md。
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+    
+    /**
+     * 每个任务一个虚拟线程的执行器；通过反射获取，源码仍可在 Java 17 下编译
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            logger.info("已启用虚拟线程执行模式");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("虚拟线程需要 Java 21 及以上版本，当前版本: "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+    
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+    
+    /**
+     * 覆盖 Spring Boot 默认的 applicationTaskExecutor，@Async 任务同样运行在虚拟线程上
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+}
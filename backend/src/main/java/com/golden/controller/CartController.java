@@ -1,10 +1,11 @@
 package com.golden.controller;
 
+import com.golden.config.CurrentUserId;
+import com.golden.dto.CartBatchRequest;
 import com.golden.entity.CartItem;
 import com.golden.service.CartService;
-import com.golden.util.JwtUtil;
 import com.golden.util.Result;
-import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,20 +16,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CartController {
     private final CartService cartService;
-    private final JwtUtil jwtUtil;
-    
-    private Long getUserId(HttpServletRequest request) {
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-            return jwtUtil.getUserIdFromToken(token);
-        }
-        return null;
-    }
     
     @GetMapping
-    public Result<List<CartItem>> getCart(HttpServletRequest request) {
-        Long userId = getUserId(request);
+    public Result<List<CartItem>> getCart(@CurrentUserId Long userId) {
         if (userId == null) {
             return Result.error(401, "未登录");
         }
@@ -37,10 +27,9 @@ public class CartController {
     }
     
     @PostMapping
-    public Result<Void> addToCart(HttpServletRequest request, 
+    public Result<Void> addToCart(@CurrentUserId Long userId, 
                                   @RequestParam Long productId,
                                   @RequestParam(defaultValue = "1") Integer quantity) {
-        Long userId = getUserId(request);
         if (userId == null) {
             return Result.error(401, "未登录");
         }
@@ -52,14 +41,29 @@ public class CartController {
         }
     }
     
+    /**
+     * 批量增加、修改、移除购物车商品（如心愿单转入购物车、再来一单），返回操作后的购物车
+     */
+    @PostMapping("/batch")
+    public Result<List<CartItem>> batchUpdate(@CurrentUserId Long userId, @Valid @RequestBody CartBatchRequest request) {
+        if (userId == null) {
+            return Result.error(401, "未登录");
+        }
+        try {
+            cartService.batchUpdate(userId, request);
+            return Result.success(cartService.getCart(userId));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+    
     @PutMapping("/{id}")
-    public Result<Void> updateCartItem(HttpServletRequest request, @PathVariable Long id, @RequestParam Integer quantity) {
-        Long userId = getUserId(request);
+    public Result<Void> updateCartItem(@CurrentUserId Long userId, @PathVariable Long id, @RequestParam Integer quantity) {
         if (userId == null) {
             return Result.error(401, "未登录");
         }
         try {
-            cartService.updateCartItem(id, quantity);
+            cartService.updateCartItem(userId, id, quantity);
             return Result.success("更新成功", null);
         } catch (Exception e) {
             return Result.error(e.getMessage());
@@ -67,13 +71,12 @@ public class CartController {
     }
     
     @DeleteMapping("/{id}")
-    public Result<Void> removeFromCart(HttpServletRequest request, @PathVariable Long id) {
-        Long userId = getUserId(request);
+    public Result<Void> removeFromCart(@CurrentUserId Long userId, @PathVariable Long id) {
         if (userId == null) {
             return Result.error(401, "未登录");
         }
         try {
-            cartService.removeFromCart(id);
+            cartService.removeFromCart(userId, id);
             return Result.success("删除成功", null);
         } catch (Exception e) {
             return Result.error(e.getMessage());
@@ -1,9 +1,14 @@
 package com.golden.controller;
 
+import com.golden.cache.CategoryTreeCache;
 import com.golden.entity.Category;
 import com.golden.service.CategoryService;
+import com.golden.util.ETags;
 import com.golden.util.Result;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -20,10 +25,24 @@ public class CategoryController {
         return Result.success(categories);
     }
     
+    /**
+     * 分类树，直接输出预先序列化的 JSON，ETag 未变化时返回 304
+     */
+    @GetMapping("/tree")
+    public ResponseEntity<byte[]> tree(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        CategoryTreeCache.Snapshot tree = categoryService.getTree();
+        if (ETags.matches(ifNoneMatch, tree.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tree.getEtag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(tree.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(tree.getTreeJson());
+    }
+    
     @GetMapping("/{parentId}")
     public Result<List<Category>> findByParentId(@PathVariable Long parentId) {
         List<Category> categories = categoryService.findByParentId(parentId);
         return Result.success(categories);
     }
 }
-
@@ -0,0 +1,96 @@
+package com.golden.controller;
+
+import com.golden.cache.CartStore;
+import com.golden.cache.CountCache;
+import com.golden.cache.HotFileCache;
+import com.golden.cache.ProductCache;
+import com.golden.cache.RatingStatsStore;
+import com.golden.cache.ReviewPageCache;
+import com.golden.config.JwtAuthFilter;
+import com.golden.event.OutboxDispatcher;
+import com.golden.metrics.MetricsRegistry;
+import com.golden.metrics.QueryAuditor;
+import com.golden.service.ImageDerivativeService;
+import com.golden.service.OrderTimeoutScheduler;
+import com.golden.util.Result;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 运行状态监控
+ * 暴露本地缓存等组件的统计数据，用于容量评估；/prometheus 输出接口耗时、SQL 耗时和连接池指标
+ */
+@RestController
+@RequestMapping("/api/monitor")
+@RequiredArgsConstructor
+public class MonitorController {
+    private final ProductCache productCache;
+    private final CountCache countCache;
+    private final JwtAuthFilter jwtAuthFilter;
+    private final CartStore cartStore;
+    private final ImageDerivativeService imageDerivativeService;
+    private final HotFileCache hotFileCache;
+    private final MetricsRegistry metricsRegistry;
+    private final QueryAuditor queryAuditor;
+    private final RatingStatsStore ratingStatsStore;
+    private final ReviewPageCache reviewPageCache;
+    private final OrderTimeoutScheduler orderTimeoutScheduler;
+    private final OutboxDispatcher outboxDispatcher;
+    
+    @GetMapping("/cache")
+    public Result<Map<String, Object>> cacheStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("product", productCache.stats());
+        result.put("count", countCache.stats());
+        result.put("rating", ratingStatsStore.stats());
+        result.put("reviewPage", reviewPageCache.stats());
+        return Result.success(result);
+    }
+    
+    @GetMapping("/auth")
+    public Result<Map<String, Object>> authStats() {
+        return Result.success(jwtAuthFilter.stats());
+    }
+    
+    @GetMapping("/cart")
+    public Result<Map<String, Object>> cartStats() {
+        return Result.success(cartStore.stats());
+    }
+    
+    @GetMapping("/images")
+    public Result<Map<String, Object>> imageStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("derivative", imageDerivativeService.stats());
+        result.put("hotFiles", hotFileCache.stats());
+        return Result.success(result);
+    }
+    
+    @GetMapping("/orders")
+    public Result<Map<String, Object>> orderTimeoutStats() {
+        return Result.success(orderTimeoutScheduler.stats());
+    }
+    
+    @GetMapping("/outbox")
+    public Result<Map<String, Object>> outboxStats() {
+        return Result.success(outboxDispatcher.stats());
+    }
+    
+    @GetMapping("/queries")
+    public Result<Map<String, Object>> queryAuditStats() {
+        return Result.success(queryAuditor.stats());
+    }
+    
+    @GetMapping("/prometheus")
+    public ResponseEntity<String> prometheus() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8"))
+                .body(metricsRegistry.scrape());
+    }
+}
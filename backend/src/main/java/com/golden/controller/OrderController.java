@@ -1,14 +1,17 @@
 package com.golden.controller;
 
+import com.golden.config.CurrentUserId;
+import com.golden.dto.OrderStatusBatchRequest;
+import com.golden.dto.OrderTransitionResult;
 import com.golden.entity.Order;
 import com.golden.entity.OrderItem;
 import com.golden.service.OrderService;
-import com.golden.util.JwtUtil;
 import com.golden.util.Result;
-import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,20 +20,9 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
-    private final JwtUtil jwtUtil;
-    
-    private Long getUserId(HttpServletRequest request) {
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-            return jwtUtil.getUserIdFromToken(token);
-        }
-        return null;
-    }
     
     @PostMapping
-    public Result<Order> createOrder(HttpServletRequest request, @RequestParam String shippingAddress) {
-        Long userId = getUserId(request);
+    public Result<Order> createOrder(@CurrentUserId Long userId, @RequestParam String shippingAddress) {
         if (userId == null) {
             return Result.error(401, "未登录");
         }
@@ -43,17 +35,23 @@ public class OrderController {
     }
     
     @GetMapping
-    public Result<Map<String, Object>> getOrders(HttpServletRequest request,
+    public Result<Map<String, Object>> getOrders(@CurrentUserId Long userId,
                                                   @RequestParam(defaultValue = "1") Integer page,
-                                                  @RequestParam(defaultValue = "10") Integer pageSize) {
-        Long userId = getUserId(request);
+                                                  @RequestParam(defaultValue = "10") Integer pageSize,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "false") Boolean withItems) {
         if (userId == null) {
             return Result.error(401, "未登录");
         }
-        Map<String, Object> result = orderService.getOrders(userId, page, pageSize);
+        Map<String, Object> result = cursor != null
+                ? orderService.getOrdersByCursor(userId, cursor, pageSize, withItems)
+                : orderService.getOrders(userId, page, pageSize, withItems);
         return Result.success(result);
     }
     
+    /**
+     * 订单详情，items 中包含明细及商品摘要
+     */
     @GetMapping("/{id}")
     public Result<Order> getOrderDetail(@PathVariable Long id) {
         Order order = orderService.getOrderDetail(id);
@@ -76,10 +74,33 @@ public class OrderController {
         }
     }
     
+    /**
+     * 批量变更订单状态（如批量发货），返回成功、失败数量及每个订单的结果
+     */
+    @PutMapping("/admin/status")
+    public Result<Map<String, Object>> batchUpdateOrderStatus(@Valid @RequestBody OrderStatusBatchRequest request) {
+        try {
+            List<OrderTransitionResult> results = orderService.batchUpdateOrderStatus(request.getOrderIds(),
+                    request.getStatus());
+            long succeeded = results.stream().filter(OrderTransitionResult::getSuccess).count();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("succeeded", succeeded);
+            result.put("failed", results.size() - succeeded);
+            result.put("results", results);
+            return Result.success(result);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+    
     @GetMapping("/admin/all")
     public Result<Map<String, Object>> getAllOrders(@RequestParam(defaultValue = "1") Integer page,
-                                                     @RequestParam(defaultValue = "10") Integer pageSize) {
-        Map<String, Object> result = orderService.getAllOrders(page, pageSize);
+                                                     @RequestParam(defaultValue = "10") Integer pageSize,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "false") Boolean approximateTotal) {
+        Map<String, Object> result = cursor != null
+                ? orderService.getAllOrdersByCursor(cursor, pageSize)
+                : orderService.getAllOrders(page, pageSize, approximateTotal);
         return Result.success(result);
     }
 }
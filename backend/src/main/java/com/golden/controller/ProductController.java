@@ -3,6 +3,7 @@ package com.golden.controller;
 import com.golden.entity.Product;
 import com.golden.service.ProductService;
 import com.golden.util.Result;
+import com.golden.util.SampledLogger;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,25 +16,37 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ProductController {
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
+    // 列表和详情是最热的接口，明细日志限流输出，调用量由定时汇总日志体现
+    private static final SampledLogger FIND_ALL_LOG = SampledLogger.of(logger, "查询商品列表", 5);
+    private static final SampledLogger FIND_BY_ID_LOG = SampledLogger.of(logger, "查询商品详情", 5);
+    private static final SampledLogger NOT_FOUND_LOG = SampledLogger.of(logger, "商品不存在", 5);
     private final ProductService productService;
     
     @GetMapping
     public Result<Map<String, Object>> findAll(
             @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "false") Boolean includeChildren,
             @RequestParam(required = false) String keyword,
             @RequestParam(defaultValue = "1") Integer page,
-            @RequestParam(defaultValue = "10") Integer pageSize) {
-        logger.info("查询商品列表: categoryId={}, keyword={}, page={}, pageSize={}", categoryId, keyword, page, pageSize);
-        Map<String, Object> result = productService.findAll(categoryId, keyword, page, pageSize);
-        logger.debug("商品列表查询完成: total={}", result.get("total"));
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false) String cursor) {
+        if (FIND_ALL_LOG.sample()) {
+            logger.info("查询商品列表: categoryId={}, keyword={}, page={}, pageSize={}", categoryId, keyword, page, pageSize);
+        }
+        // 传入 cursor 参数（首页为空串）时使用游标分页；关键词搜索按相关度排序，仍使用页码分页
+        Map<String, Object> result = cursor != null && (keyword == null || keyword.isBlank())
+                ? productService.findAllByCursor(categoryId, includeChildren, keyword, cursor, pageSize)
+                : productService.findAll(categoryId, includeChildren, keyword, page, pageSize);
         return Result.success(result);
     }
     
     @GetMapping("/{id}")
     public Result<Product> findById(@PathVariable Long id) {
-        logger.info("查询商品详情: productId={}", id);
+        if (FIND_BY_ID_LOG.sample()) {
+            logger.info("查询商品详情: productId={}", id);
+        }
         Product product = productService.findById(id);
-        if (product == null) {
+        if (product == null && NOT_FOUND_LOG.sample()) {
             logger.warn("商品不存在: productId={}", id);
         }
         return Result.success(product);
@@ -1,42 +1,48 @@
 package com.golden.controller;
 
+import com.golden.config.CurrentUserId;
+import com.golden.dto.RatingSummary;
 import com.golden.entity.Review;
 import com.golden.service.ReviewService;
-import com.golden.util.JwtUtil;
 import com.golden.util.Result;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reviews")
 @RequiredArgsConstructor
 public class ReviewController {
-    private final ReviewService reviewService;
-    private final JwtUtil jwtUtil;
+    private static final int MAX_RATING_BATCH = 100;
     
-    private Long getUserId(HttpServletRequest request) {
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-            return jwtUtil.getUserIdFromToken(token);
-        }
-        return null;
-    }
+    private final ReviewService reviewService;
     
     @GetMapping("/product/{productId}")
     public Result<Map<String, Object>> getReviews(@PathVariable Long productId,
                                                    @RequestParam(defaultValue = "1") Integer page,
-                                                   @RequestParam(defaultValue = "10") Integer pageSize) {
-        Map<String, Object> result = reviewService.getReviews(productId, page, pageSize);
+                                                   @RequestParam(defaultValue = "10") Integer pageSize,
+                                                   @RequestParam(required = false) String cursor) {
+        Map<String, Object> result = cursor != null
+                ? reviewService.getReviewsByCursor(productId, cursor, pageSize)
+                : reviewService.getReviews(productId, page, pageSize);
         return Result.success(result);
     }
     
+    /**
+     * 批量查询商品评分汇总，供列表页一次取回整页商品的平均分和星级分布
+     */
+    @GetMapping("/ratings")
+    public Result<Map<Long, RatingSummary>> getRatings(@RequestParam List<Long> productIds) {
+        if (productIds.size() > MAX_RATING_BATCH) {
+            return Result.error("一次最多查询" + MAX_RATING_BATCH + "个商品");
+        }
+        return Result.success(reviewService.getRatings(productIds));
+    }
+    
     @PostMapping
-    public Result<Void> createReview(HttpServletRequest request, @RequestBody Review review) {
-        Long userId = getUserId(request);
+    public Result<Void> createReview(@CurrentUserId Long userId, @RequestBody Review review) {
         if (userId == null) {
             return Result.error(401, "未登录");
         }
@@ -6,6 +6,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/upload")
 @RequiredArgsConstructor
@@ -13,10 +15,21 @@ public class UploadController {
     private final FileUploadService fileUploadService;
     
     @PostMapping("/image")
-    public Result<String> uploadImage(@RequestParam("file") MultipartFile file) {
+    public Result<Map<String, Object>> uploadImage(@RequestParam("file") MultipartFile file) {
+        try {
+            return Result.success(fileUploadService.uploadImage(file));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+    
+    /**
+     * 查询缩略图、中图的生成状态：PENDING、PROCESSING、DONE、FAILED、REJECTED（队列已满）、UNSUPPORTED（格式不支持）
+     */
+    @GetMapping("/image/{hash}/status")
+    public Result<Map<String, Object>> getDerivativeStatus(@PathVariable String hash) {
         try {
-            String url = fileUploadService.uploadImage(file);
-            return Result.success(url);
+            return Result.success(fileUploadService.getDerivativeStatus(hash));
         } catch (Exception e) {
             return Result.error(e.getMessage());
         }
@@ -0,0 +1,199 @@
+package com.golden.controller;
+
+import com.golden.cache.HotFileCache;
+import com.golden.service.FileUploadService;
+import com.golden.util.ETags;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 上传文件访问（/uploads/**）
+ * 以内容哈希命名的文件内容不变，返回一年的 immutable 缓存头和强 ETag，If-None-Match 命中时返回 304；
+ * 支持单段 Range 请求。小文件走内存热点缓存，其余优先使用 Tomcat sendfile 零拷贝发送，
+ * 连接器不支持时用 FileChannel.transferTo 写出。
+ */
+@RestController
+@RequiredArgsConstructor
+public class UploadFileController {
+    private static final String PATH_PREFIX = "/uploads/";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String DEFAULT_CACHE_CONTROL = "public, max-age=86400";
+    
+    private final FileUploadService fileUploadService;
+    private final HotFileCache hotFileCache;
+    
+    /**
+     * 请求的字节区间 [start, end]，均为闭区间
+     */
+    private record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+    
+    @GetMapping(PATH_PREFIX + "**")
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String servletPath = request.getServletPath();
+        Path file = servletPath.startsWith(PATH_PREFIX)
+                ? fileUploadService.resolveStoredFile(servletPath.substring(PATH_PREFIX.length()))
+                : null;
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        boolean immutable = fileUploadService.isContentAddressed(file);
+        String fileName = file.getFileName().toString();
+        String etag = immutable
+                ? "\"" + fileName.substring(0, fileName.lastIndexOf('.')) + "-" + Long.toHexString(size) + "\""
+                : "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE_CACHE_CONTROL : DEFAULT_CACHE_CONTROL);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        
+        if (ETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        ByteRange range = new ByteRange(0, size - 1);
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && size > 0 && ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            ByteRange requested = parseRange(rangeHeader, size);
+            if (requested != null && requested.length() <= 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (requested != null) {
+                range = requested;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + range.start() + "-" + range.end() + "/" + size);
+            }
+        }
+        
+        MediaType mediaType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setContentType(mediaType.toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setContentLengthLong(Math.max(range.length(), 0));
+        if ("HEAD".equals(request.getMethod()) || size == 0) {
+            return;
+        }
+        
+        if (hotFileCache.cacheable(size)) {
+            byte[] content = hotFileCache.get(file + "|" + etag, file);
+            response.getOutputStream().write(content, (int) range.start(), (int) range.length());
+            return;
+        }
+        
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat 在请求结束后直接从文件描述符发送，end 为开区间
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end() + 1);
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = range.start();
+            long remaining = range.length();
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+    
+    /**
+     * If-Range 为 ETag 时要求强匹配，为日期时要求与最后修改时间一致；不满足则忽略 Range 返回完整文件
+     */
+    private boolean ifRangeMatches(String header, String etag, long lastModified) {
+        if (header == null) {
+            return true;
+        }
+        String value = header.trim();
+        if (value.startsWith("\"")) {
+            return value.equals(etag);
+        }
+        try {
+            long date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant().toEpochMilli();
+            return lastModified / 1000 == date / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 解析单段 Range：bytes=a-b、bytes=a-、bytes=-n。
+     * 格式不合法或包含多段时返回 null（按规范忽略 Range）；区间不可满足时返回长度为 0 的区间
+     */
+    private ByteRange parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return null;
+                }
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new ByteRange(0, -1);
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start < 0 || (!last.isEmpty() && Long.parseLong(last) < start)) {
+                return null;
+            }
+            if (start >= size) {
+                return new ByteRange(0, -1);
+            }
+            return new ByteRange(start, end);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
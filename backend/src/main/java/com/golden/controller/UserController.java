@@ -1,10 +1,9 @@
 package com.golden.controller;
 
+import com.golden.config.CurrentUserId;
 import com.golden.entity.User;
 import com.golden.service.UserService;
-import com.golden.util.JwtUtil;
 import com.golden.util.Result;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,20 +12,9 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
-    private final JwtUtil jwtUtil;
-    
-    private Long getUserId(HttpServletRequest request) {
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-            return jwtUtil.getUserIdFromToken(token);
-        }
-        return null;
-    }
     
     @GetMapping("/profile")
-    public Result<User> getProfile(HttpServletRequest request) {
-        Long userId = getUserId(request);
+    public Result<User> getProfile(@CurrentUserId Long userId) {
         if (userId == null) {
             return Result.error(401, "未登录");
         }
@@ -36,8 +24,7 @@ public class UserController {
     }
     
     @PutMapping("/profile")
-    public Result<Void> updateProfile(HttpServletRequest request, @RequestBody User user) {
-        Long userId = getUserId(request);
+    public Result<Void> updateProfile(@CurrentUserId Long userId, @RequestBody User user) {
         if (userId == null) {
             return Result.error(401, "未登录");
         }
@@ -0,0 +1,30 @@
+package com.golden.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CartBatchRequest {
+    @NotEmpty(message = "操作列表不能为空")
+    @Size(max = 200, message = "单次最多操作200个商品")
+    @Valid
+    private List<Operation> operations;
+    
+    @Data
+    public static class Operation {
+        @NotNull(message = "操作类型不能为空")
+        @Pattern(regexp = "add|set|remove", message = "操作类型只能是 add、set 或 remove")
+        private String op; // add-增加数量 set-设置数量 remove-移除
+        
+        @NotNull(message = "商品ID不能为空")
+        private Long productId;
+        
+        private Integer quantity;
+    }
+}
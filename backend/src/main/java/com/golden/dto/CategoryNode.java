@@ -0,0 +1,16 @@
+package com.golden.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CategoryNode {
+    private Long id;
+    private String name;
+    private Long parentId;
+    private Integer sortOrder;
+    private List<Long> path; // 从顶级分类到当前分类的ID路径
+    private List<CategoryNode> children = new ArrayList<>();
+}
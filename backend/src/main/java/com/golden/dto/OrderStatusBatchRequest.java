@@ -0,0 +1,18 @@
+package com.golden.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class OrderStatusBatchRequest {
+    @NotEmpty(message = "订单列表不能为空")
+    @Size(max = 5000, message = "单次最多处理5000个订单")
+    private List<Long> orderIds;
+    
+    @NotNull(message = "目标状态不能为空")
+    private Integer status;
+}
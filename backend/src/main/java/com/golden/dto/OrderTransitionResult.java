@@ -0,0 +1,28 @@
+package com.golden.dto;
+
+import lombok.Data;
+
+@Data
+public class OrderTransitionResult {
+    private Long orderId;
+    private Boolean success;
+    private Integer status; // 处理后订单的当前状态，订单不存在时为 null
+    private String message; // 失败原因
+    
+    public static OrderTransitionResult success(Long orderId, Integer status) {
+        OrderTransitionResult result = new OrderTransitionResult();
+        result.setOrderId(orderId);
+        result.setSuccess(true);
+        result.setStatus(status);
+        return result;
+    }
+    
+    public static OrderTransitionResult failure(Long orderId, Integer status, String message) {
+        OrderTransitionResult result = new OrderTransitionResult();
+        result.setOrderId(orderId);
+        result.setSuccess(false);
+        result.setStatus(status);
+        result.setMessage(message);
+        return result;
+    }
+}
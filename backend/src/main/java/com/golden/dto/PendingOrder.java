@@ -0,0 +1,9 @@
+package com.golden.dto;
+
+import lombok.Data;
+
+@Data
+public class PendingOrder {
+    private Long orderId;
+    private Long ageSeconds; // 下单至今的秒数，由数据库按 created_at 与 NOW() 计算
+}
@@ -0,0 +1,11 @@
+package com.golden.dto;
+
+import lombok.Data;
+
+@Data
+public class RatingSummary {
+    private Long productId;
+    private Integer count;
+    private Double average; // 保留一位小数，无评价时为 0
+    private int[] stars; // stars[0] 为 1 星评价数，依次到 stars[4] 为 5 星
+}
@@ -3,6 +3,7 @@ package com.golden.entity;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 public class Order {
@@ -14,5 +15,8 @@ public class Order {
     private String shippingAddress;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    
+    // 关联查询字段：订单详情及带明细的订单列表中填充
+    private List<OrderItem> items;
 }
 
@@ -0,0 +1,60 @@
+package com.golden.entity;
+
+import java.util.Set;
+
+/**
+ * 订单状态及允许的流转
+ * 待支付 → 已支付 → 已发货 → 已完成，待支付和已支付可取消；已完成、已取消为终态。
+ * 数据库中保存 code，状态变更通过 UPDATE ... WHERE status = 原状态 保证并发下只有一次流转生效。
+ */
+public enum OrderStatus {
+    PENDING(0, "待支付"),
+    PAID(1, "已支付"),
+    SHIPPED(2, "已发货"),
+    COMPLETED(3, "已完成"),
+    CANCELLED(4, "已取消");
+    
+    private final int code;
+    private final String label;
+    
+    OrderStatus(int code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+    
+    public int getCode() {
+        return code;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    public Set<OrderStatus> nextStatuses() {
+        return switch (this) {
+            case PENDING -> Set.of(PAID, CANCELLED);
+            case PAID -> Set.of(SHIPPED, CANCELLED);
+            case SHIPPED -> Set.of(COMPLETED);
+            case COMPLETED, CANCELLED -> Set.of();
+        };
+    }
+    
+    public boolean canTransitionTo(OrderStatus target) {
+        return nextStatuses().contains(target);
+    }
+    
+    /**
+     * 按 code 查找状态，未知 code 返回 null
+     */
+    public static OrderStatus of(Integer code) {
+        if (code == null) {
+            return null;
+        }
+        for (OrderStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.golden.entity;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class OutboxEvent {
+    private Long id;
+    private String aggregateType;
+    private Long aggregateId;
+    private String eventType;
+    private String payload; // JSON格式事件内容
+    private Integer status; // 0-待投递 1-已投递 2-超过重试次数
+    private Integer attempts;
+    private LocalDateTime nextAttemptAt;
+    private String claimedBy; // 认领该事件的分发器实例标识
+    private LocalDateTime claimedUntil; // 认领租约到期时间
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,15 @@
+package com.golden.entity;
+
+import lombok.Data;
+
+@Data
+public class ProductRatingStats {
+    private Long productId;
+    private Integer reviewCount;
+    private Long ratingSum;
+    private Integer star1;
+    private Integer star2;
+    private Integer star3;
+    private Integer star4;
+    private Integer star5;
+}
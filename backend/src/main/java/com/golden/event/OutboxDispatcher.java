@@ -0,0 +1,272 @@
+package com.golden.event;
+
+import com.golden.entity.OutboxEvent;
+import com.golden.mapper.OutboxEventMapper;
+import com.golden.metrics.MetricsRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 发件箱分发器
+ * 后台线程先用一条 UPDATE 认领一批可投递事件（写入本实例标识和租约到期时间），再取出本实例认领的事件交给对应监听器，
+ * 成功的事件一条语句批量标记为已投递。多实例部署时同一事件同一时刻只被一个实例投递；
+ * 认领实例宕机或投递超过租约时间后租约到期，事件由任意实例重新认领，因此仍是至少一次投递，监听器需幂等。
+ * 同一聚合的事件按写入顺序投递：只认领每个聚合最早的一条待投递事件，失败退避或被其他实例认领期间后续事件一起等待。
+ * 失败后按指数退避重试，超过最大次数标记为 2 不再投递，后续事件继续。
+ * 租约到期、重试时间、保留期和延迟指标都由数据库 NOW(3) 计算，多实例之间不受 JVM 时钟偏差和时区影响。
+ * 本实例提交的事件由 {@link OutboxPublisher} 立即唤醒线程，其余靠 poll-ms 间隔轮询兜底；未注册监听器时不启动。
+ */
+@Component
+public class OutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final int STATUS_FAILED = 2;
+    private static final int PURGE_BATCH_SIZE = 1000;
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    private final OutboxEventMapper outboxEventMapper;
+    private final Map<String, List<OutboxEventListener>> listeners = new HashMap<>();
+    // 本实例标识，写入 claimed_by
+    private final String owner;
+    private final boolean enabled;
+    private final long pollNanos;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffInitialMillis;
+    private final long backoffMaxMillis;
+    private final long leaseMillis;
+    private final long retentionHours;
+    
+    private final Map<String, LongAdder> dispatched = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failed = new ConcurrentHashMap<>();
+    private volatile int pendingEvents;
+    private volatile int deadEvents;
+    private volatile double lagSeconds;
+    private volatile Thread worker;
+    
+    public OutboxDispatcher(OutboxEventMapper outboxEventMapper,
+                            List<OutboxEventListener> eventListeners,
+                            MetricsRegistry metricsRegistry,
+                            @Value("${outbox.enabled:true}") boolean enabled,
+                            @Value("${outbox.poll-ms:500}") long pollMillis,
+                            @Value("${outbox.batch-size:100}") int batchSize,
+                            @Value("${outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${outbox.backoff-initial-ms:1000}") long backoffInitialMillis,
+                            @Value("${outbox.backoff-max-ms:300000}") long backoffMaxMillis,
+                            @Value("${outbox.lease-ms:60000}") long leaseMillis,
+                            @Value("${outbox.retention-hours:72}") long retentionHours) {
+        this.outboxEventMapper = outboxEventMapper;
+        for (OutboxEventListener listener : eventListeners) {
+            listeners.computeIfAbsent(listener.eventType(), k -> new ArrayList<>()).add(listener);
+        }
+        this.enabled = enabled;
+        this.pollNanos = TimeUnit.MILLISECONDS.toNanos(pollMillis);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffInitialMillis = backoffInitialMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+        this.leaseMillis = leaseMillis;
+        this.owner = instanceId();
+        this.retentionHours = retentionHours;
+        
+        metricsRegistry.register("outbox_events_dispatched_total", "counter", "已投递的发件箱事件数", "event_type",
+                () -> sums(dispatched));
+        metricsRegistry.register("outbox_events_failed_total", "counter", "发件箱事件投递失败次数（含重试）", "event_type",
+                () -> sums(failed));
+        metricsRegistry.register("outbox_events", "gauge", "发件箱中的事件数", "status",
+                () -> Map.of("pending", pendingEvents, "dead", deadEvents));
+        metricsRegistry.register("outbox_lag_seconds", "gauge", "最早一条待投递事件距今的时间（秒）", "outbox",
+                () -> Map.of("default", lagSeconds));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // 没有监听器时不启动，避免空轮询占用数据库
+        if (listeners.isEmpty()) {
+            logger.info("未注册发件箱事件监听器，分发器不启动");
+            return;
+        }
+        logger.info("发件箱分发器启动: owner={}, listeners={}", owner, listeners.keySet());
+        Thread thread = new Thread(this::run, "outbox-dispatcher");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+    
+    /**
+     * 有新事件提交时唤醒分发线程，不必等到下次轮询
+     */
+    public void wakeUp() {
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+    
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            int count = 0;
+            try {
+                count = dispatchBatch();
+            } catch (Exception e) {
+                logger.warn("发件箱事件拉取失败: {}", e.getMessage());
+            }
+            // 本批有事件投递成功时立即再取一次，同一聚合的下一条事件不必等待轮询间隔
+            if (count == 0) {
+                LockSupport.parkNanos(this, pollNanos);
+            }
+        }
+    }
+    
+    /**
+     * 投递一批事件，返回投递成功的数量
+     */
+    private int dispatchBatch() {
+        // 租约到期时间由数据库计算；本地按认领前的单调时钟判断，只会比数据库中的租约更早到期
+        long leaseDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+        if (outboxEventMapper.claim(owner, leaseMillis, batchSize) == 0) {
+            return 0;
+        }
+        List<OutboxEvent> events = outboxEventMapper.findClaimed(owner);
+        List<Long> processed = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            // 租约已到期的事件可能已被其他实例认领，留给下次认领
+            if (System.nanoTime() - leaseDeadline > 0) {
+                logger.warn("发件箱事件投递超过租约时间，剩余事件等待重新认领: lease={}ms, remaining={}",
+                        leaseMillis, events.size() - processed.size());
+                break;
+            }
+            try {
+                for (OutboxEventListener listener : listeners.getOrDefault(event.getEventType(), List.of())) {
+                    listener.handle(event);
+                }
+                processed.add(event.getId());
+                dispatched.computeIfAbsent(event.getEventType(), k -> new LongAdder()).increment();
+            } catch (Exception e) {
+                failed.computeIfAbsent(event.getEventType(), k -> new LongAdder()).increment();
+                scheduleRetry(event, e);
+            }
+        }
+        if (!processed.isEmpty()) {
+            outboxEventMapper.markProcessed(processed);
+        }
+        return processed.size();
+    }
+    
+    private void scheduleRetry(OutboxEvent event, Exception error) {
+        int attempts = (event.getAttempts() == null ? 0 : event.getAttempts()) + 1;
+        String message = String.valueOf(error.getMessage());
+        event.setAttempts(attempts);
+        event.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        long delay = 0;
+        if (attempts >= maxAttempts) {
+            event.setStatus(STATUS_FAILED);
+            logger.error("发件箱事件超过最大重试次数，不再投递: id={}, type={}, aggregate={}:{}, error={}",
+                    event.getId(), event.getEventType(), event.getAggregateType(), event.getAggregateId(), message);
+        } else {
+            delay = Math.min(backoffInitialMillis << Math.min(attempts - 1, 30), backoffMaxMillis);
+            logger.warn("发件箱事件投递失败，{}ms 后重试: id={}, type={}, attempts={}, error={}",
+                    delay, event.getId(), event.getEventType(), attempts, message);
+        }
+        outboxEventMapper.markFailed(event, delay);
+    }
+    
+    /**
+     * 刷新积压数量和延迟指标
+     */
+    @Scheduled(fixedDelayString = "${outbox.stats-refresh-ms:10000}")
+    public void refreshStats() {
+        if (worker == null) {
+            return;
+        }
+        int released = outboxEventMapper.releaseExpiredClaims();
+        if (released > 0) {
+            logger.warn("已释放到期的发件箱事件认领: count={}", released);
+        }
+        pendingEvents = outboxEventMapper.countByStatus(0);
+        deadEvents = outboxEventMapper.countByStatus(STATUS_FAILED);
+        // 延迟在数据库中计算，与写入 created_at 的时钟一致
+        Long ageMicros = outboxEventMapper.findOldestPendingAgeMicros();
+        lagSeconds = ageMicros == null ? 0 : Math.max(ageMicros, 0) / 1_000_000.0;
+    }
+    
+    /**
+     * 分批删除保留期之前已投递的事件
+     */
+    @Scheduled(initialDelayString = "${outbox.purge-ms:3600000}", fixedDelayString = "${outbox.purge-ms:3600000}")
+    public void purge() {
+        if (worker == null) {
+            return;
+        }
+        int total = 0;
+        int deleted;
+        do {
+            deleted = outboxEventMapper.deleteProcessedOlderThan(retentionHours, PURGE_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+        if (total > 0) {
+            logger.info("已清理发件箱历史事件: count={}", total);
+        }
+    }
+    
+    private static String instanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String prefix = host.length() > 55 ? host.substring(0, 55) : host;
+        return prefix + "-" + suffix;
+    }
+    
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        counters.forEach((type, counter) -> result.put(type, counter.sum()));
+        return result;
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("running", worker != null);
+        result.put("owner", owner);
+        result.put("pending", pendingEvents);
+        result.put("dead", deadEvents);
+        result.put("lagSeconds", lagSeconds);
+        result.put("dispatched", sums(dispatched));
+        result.put("failed", sums(failed));
+        return result;
+    }
+}
@@ -0,0 +1,18 @@
+package com.golden.event;
+
+import com.golden.entity.OutboxEvent;
+
+/**
+ * 发件箱事件监听器
+ * 由 {@link OutboxDispatcher} 在业务事务提交后异步调用。投递语义为至少一次：
+ * 抛出异常或进程中断时整条事件会重新投递，同一事件的其他监听器也会再执行一次，实现需保证幂等。
+ */
+public interface OutboxEventListener {
+    
+    /**
+     * 监听的事件类型
+     */
+    String eventType();
+    
+    void handle(OutboxEvent event) throws Exception;
+}
@@ -9,11 +9,11 @@ import java.util.List;
 @Mapper
 public interface CartItemMapper {
     List<CartItem> findByUserId(Long userId);
-    CartItem findByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
-    CartItem findById(Long id);
     int insert(CartItem cartItem);
     int update(CartItem cartItem);
+    int batchUpsert(@Param("items") List<CartItem> items);
     int delete(Long id);
     int deleteByUserId(Long userId);
+    int deleteByUserIdAndProductIds(@Param("userId") Long userId, @Param("productIds") List<Long> productIds);
 }
 
@@ -2,12 +2,16 @@ package com.golden.mapper;
 
 import com.golden.entity.OrderItem;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
 import java.util.List;
 
 @Mapper
 public interface OrderItemMapper {
     int insert(OrderItem orderItem);
+    int batchInsert(@Param("items") List<OrderItem> items);
     List<OrderItem> findByOrderId(Long orderId);
+    List<OrderItem> findByOrderIds(@Param("orderIds") List<Long> orderIds);
+    List<Long> findProductIdsByOrderIds(@Param("orderIds") List<Long> orderIds);
 }
 
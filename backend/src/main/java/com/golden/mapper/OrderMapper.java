@@ -1,8 +1,11 @@
 package com.golden.mapper;
 
+import com.golden.dto.PendingOrder;
 import com.golden.entity.Order;
+import com.golden.util.PageCursor;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 
@@ -10,11 +13,21 @@ import java.util.List;
 public interface OrderMapper {
     int insert(Order order);
     Order findById(Long id);
+    Order findDetailById(Long id);
     Order findByOrderNo(String orderNo);
     List<Order> findByUserId(@Param("userId") Long userId, @Param("offset") Integer offset, @Param("limit") Integer limit);
+    List<Order> findByUserIdByCursor(@Param("userId") Long userId, @Param("cursor") PageCursor cursor, @Param("limit") Integer limit);
     int countByUserId(Long userId);
     int update(Order order);
+    int updateStatus(@Param("id") Long id, @Param("fromStatus") Integer fromStatus, @Param("toStatus") Integer toStatus);
+    int batchUpdateStatus(@Param("ids") List<Long> ids, @Param("fromStatus") Integer fromStatus,
+                          @Param("toStatus") Integer toStatus);
+    List<Order> findStatusByIds(@Param("ids") List<Long> ids);
+    List<Order> lockStatusByIds(@Param("ids") List<Long> ids);
+    void scanPending(ResultHandler<PendingOrder> handler);
     List<Order> findAll(@Param("offset") Integer offset, @Param("limit") Integer limit);
+    List<Order> findAllByCursor(@Param("cursor") PageCursor cursor, @Param("limit") Integer limit);
     int countAll();
+    Long estimateCountAll();
 }
 
@@ -0,0 +1,20 @@
+package com.golden.mapper;
+
+import com.golden.entity.OutboxEvent;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface OutboxEventMapper {
+    int insert(OutboxEvent event);
+    int claim(@Param("owner") String owner, @Param("leaseMillis") long leaseMillis, @Param("limit") Integer limit);
+    List<OutboxEvent> findClaimed(@Param("owner") String owner);
+    int releaseExpiredClaims();
+    int markProcessed(@Param("ids") List<Long> ids);
+    int markFailed(@Param("event") OutboxEvent event, @Param("delayMillis") long delayMillis);
+    int countByStatus(Integer status);
+    Long findOldestPendingAgeMicros();
+    int deleteProcessedOlderThan(@Param("hours") long hours, @Param("limit") Integer limit);
+}
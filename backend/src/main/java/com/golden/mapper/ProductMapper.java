@@ -1,19 +1,29 @@
 package com.golden.mapper;
 
+import com.golden.entity.CartItem;
 import com.golden.entity.Product;
+import com.golden.util.PageCursor;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
 public interface ProductMapper {
-    List<Product> findAll(@Param("categoryId") Long categoryId, @Param("keyword") String keyword, 
+    List<Product> findAll(@Param("categoryIds") Collection<Long> categoryIds, @Param("keyword") String keyword, 
                          @Param("offset") Integer offset, @Param("limit") Integer limit);
-    int count(@Param("categoryId") Long categoryId, @Param("keyword") String keyword);
+    List<Product> findAllByCursor(@Param("categoryIds") Collection<Long> categoryIds, @Param("keyword") String keyword,
+                                  @Param("cursor") PageCursor cursor, @Param("limit") Integer limit);
+    int count(@Param("categoryIds") Collection<Long> categoryIds, @Param("keyword") String keyword);
     Product findById(Long id);
+    List<Product> findAllForIndex();
+    List<Product> findByIds(@Param("ids") List<Long> ids);
     int insert(Product product);
     int update(Product product);
+    int decreaseStock(@Param("id") Long id, @Param("quantity") Integer quantity);
+    int batchDecreaseStock(@Param("items") List<CartItem> items);
+    int restoreStockByOrderIds(@Param("orderIds") List<Long> orderIds);
     int delete(Long id);
 }
 
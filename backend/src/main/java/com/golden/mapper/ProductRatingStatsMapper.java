@@ -0,0 +1,12 @@
+package com.golden.mapper;
+
+import com.golden.entity.ProductRatingStats;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+@Mapper
+public interface ProductRatingStatsMapper {
+    void scanAll(ResultHandler<ProductRatingStats> handler);
+    int increment(@Param("productId") Long productId, @Param("rating") Integer rating);
+}
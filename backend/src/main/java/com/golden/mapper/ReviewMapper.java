@@ -1,6 +1,7 @@
 package com.golden.mapper;
 
 import com.golden.entity.Review;
+import com.golden.util.PageCursor;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -10,6 +11,8 @@ import java.util.List;
 public interface ReviewMapper {
     List<Review> findByProductId(@Param("productId") Long productId, 
                                 @Param("offset") Integer offset, @Param("limit") Integer limit);
+    List<Review> findByProductIdByCursor(@Param("productId") Long productId,
+                                         @Param("cursor") PageCursor cursor, @Param("limit") Integer limit);
     int countByProductId(Long productId);
     int insert(Review review);
 }
@@ -0,0 +1,52 @@
+package com.golden.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按控制器方法记录请求耗时（从进入拦截器到视图/响应处理完成）
+ */
+@Component
+@RequiredArgsConstructor
+public class EndpointMetricsInterceptor implements HandlerInterceptor {
+    private static final String START_ATTRIBUTE = EndpointMetricsInterceptor.class.getName() + ".start";
+    
+    private final MetricsRegistry metricsRegistry;
+    // 以 Method 为键缓存，避免每次请求拼接 "类名.方法名"
+    private final ConcurrentMap<Method, MetricsRegistry.TimerMetric> timers = new ConcurrentHashMap<>();
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod)
+                || !(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        MetricsRegistry.TimerMetric timer = timers.computeIfAbsent(handlerMethod.getMethod(),
+                method -> metricsRegistry.endpoint(handlerName(handlerMethod)));
+        timer.record(elapsed, ex != null || response.getStatus() >= 500);
+    }
+    
+    /**
+     * 控制器方法名，如 OrderController.createOrder
+     */
+    public static String handlerName(HandlerMethod handlerMethod) {
+        return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+    }
+}
@@ -0,0 +1,54 @@
+package com.golden.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hikari 连接池指标
+ * 作为 BeanPostProcessor 在连接池启动前为每个 HikariDataSource 设置 MetricsTrackerFactory，
+ * 记录获取连接等待时间、连接占用时间和超时次数，按连接池名称区分。
+ */
+@Component
+public class HikariMetricsTrackerFactory implements MetricsTrackerFactory, BeanPostProcessor {
+    // BeanPostProcessor 需要尽早创建，延迟获取 MetricsRegistry，避免其提前初始化
+    private final ObjectProvider<MetricsRegistry> metricsRegistry;
+    
+    public HikariMetricsTrackerFactory(ObjectProvider<MetricsRegistry> metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+    
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource && dataSource.getMetricsTrackerFactory() == null
+                && dataSource.getMetricRegistry() == null) {
+            dataSource.setMetricsTrackerFactory(this);
+        }
+        return bean;
+    }
+    
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        MetricsRegistry.PoolMetric metric = metricsRegistry.getObject().pool(poolName, poolStats);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                metric.recordAcquire(elapsedAcquiredNanos);
+            }
+            
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                metric.recordUsageMillis(elapsedBorrowedMillis);
+            }
+            
+            @Override
+            public void recordConnectionTimeout() {
+                metric.recordTimeout();
+            }
+        };
+    }
+}
@@ -0,0 +1,191 @@
+package com.golden.metrics;
+
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 应用内置指标
+ * 汇总控制器方法耗时、MyBatis 语句耗时与返回行数、连接池获取连接等待时间，
+ * 以 Prometheus 文本格式输出（/api/monitor/prometheus）。
+ * 指标按名称懒创建，记录路径上只有一次 ConcurrentHashMap 查找。
+ */
+@Component
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    
+    private final ConcurrentMap<String, TimerMetric> endpoints = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, StatementMetric> statements = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PoolMetric> pools = new ConcurrentHashMap<>();
+    private final List<ExternalMetric> externals = new CopyOnWriteArrayList<>();
+    
+    /**
+     * 由其他组件维护、输出时读取的指标（计数器或仪表）
+     */
+    private record ExternalMetric(String name, String type, String help, String labelName,
+                                  Supplier<Map<String, ? extends Number>> samples) {
+    }
+    
+    /**
+     * 耗时 + 错误次数
+     */
+    public static class TimerMetric {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        
+        public void record(long nanos, boolean error) {
+            latency.record(nanos);
+            if (error) {
+                errors.increment();
+            }
+        }
+    }
+    
+    /**
+     * 语句耗时 + 返回/影响行数 + 异常次数
+     */
+    public static class StatementMetric extends TimerMetric {
+        final LongAdder rows = new LongAdder();
+        
+        public void record(long nanos, long rowCount, boolean error) {
+            record(nanos, error);
+            rows.add(rowCount);
+        }
+    }
+    
+    /**
+     * 连接池：获取连接等待时间、连接占用时间、超时次数，以及实时连接数
+     */
+    public static class PoolMetric {
+        final LatencyHistogram acquire = new LatencyHistogram();
+        final LatencyHistogram usage = new LatencyHistogram();
+        final LongAdder timeouts = new LongAdder();
+        volatile PoolStats poolStats;
+        
+        public void recordAcquire(long nanos) {
+            acquire.record(nanos);
+        }
+        
+        public void recordUsageMillis(long millis) {
+            usage.record(millis * 1_000_000L);
+        }
+        
+        public void recordTimeout() {
+            timeouts.increment();
+        }
+    }
+    
+    public TimerMetric endpoint(String handler) {
+        return endpoints.computeIfAbsent(handler, key -> new TimerMetric());
+    }
+    
+    public StatementMetric statement(String statementId) {
+        return statements.computeIfAbsent(statementId, key -> new StatementMetric());
+    }
+    
+    public PoolMetric pool(String poolName, PoolStats poolStats) {
+        PoolMetric metric = pools.computeIfAbsent(poolName, key -> new PoolMetric());
+        metric.poolStats = poolStats;
+        return metric;
+    }
+    
+    /**
+     * 注册外部指标，type 为 counter 或 gauge；samples 返回 标签值 -> 数值
+     */
+    public void register(String name, String type, String help, String labelName,
+                         Supplier<Map<String, ? extends Number>> samples) {
+        externals.add(new ExternalMetric(name, type, help, labelName, samples));
+    }
+    
+    /**
+     * Prometheus 文本格式（text/plain; version=0.0.4）
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+        
+        header(out, "http_server_requests_seconds", "summary", "控制器方法耗时");
+        sorted(endpoints).forEach((handler, metric) -> summary(out, "http_server_requests_seconds", "handler", handler, metric.latency));
+        header(out, "http_server_requests_seconds_max", "gauge", "控制器方法最大耗时");
+        sorted(endpoints).forEach((handler, metric) ->
+                sample(out, "http_server_requests_seconds_max", "handler", handler, null, seconds(metric.latency.getMaxNanos())));
+        header(out, "http_server_requests_errors_total", "counter", "控制器方法异常或 5xx 次数");
+        sorted(endpoints).forEach((handler, metric) ->
+                sample(out, "http_server_requests_errors_total", "handler", handler, null, metric.errors.sum()));
+        
+        header(out, "mybatis_statement_seconds", "summary", "MyBatis 语句执行耗时");
+        sorted(statements).forEach((id, metric) -> summary(out, "mybatis_statement_seconds", "statement", id, metric.latency));
+        header(out, "mybatis_statement_rows_total", "counter", "查询返回行数或更新影响行数");
+        sorted(statements).forEach((id, metric) ->
+                sample(out, "mybatis_statement_rows_total", "statement", id, null, metric.rows.sum()));
+        header(out, "mybatis_statement_errors_total", "counter", "语句执行异常次数");
+        sorted(statements).forEach((id, metric) ->
+                sample(out, "mybatis_statement_errors_total", "statement", id, null, metric.errors.sum()));
+        
+        header(out, "hikari_connection_acquire_seconds", "summary", "从连接池获取连接的等待时间");
+        sorted(pools).forEach((pool, metric) -> summary(out, "hikari_connection_acquire_seconds", "pool", pool, metric.acquire));
+        header(out, "hikari_connection_usage_seconds", "summary", "连接从借出到归还的占用时间");
+        sorted(pools).forEach((pool, metric) -> summary(out, "hikari_connection_usage_seconds", "pool", pool, metric.usage));
+        header(out, "hikari_connection_timeouts_total", "counter", "获取连接超时次数");
+        sorted(pools).forEach((pool, metric) ->
+                sample(out, "hikari_connection_timeouts_total", "pool", pool, null, metric.timeouts.sum()));
+        header(out, "hikari_connections", "gauge", "连接池连接数");
+        sorted(pools).forEach((pool, metric) -> {
+            PoolStats stats = metric.poolStats;
+            if (stats != null) {
+                sample(out, "hikari_connections", "pool", pool, "state=\"active\"", stats.getActiveConnections());
+                sample(out, "hikari_connections", "pool", pool, "state=\"idle\"", stats.getIdleConnections());
+                sample(out, "hikari_connections", "pool", pool, "state=\"pending\"", stats.getPendingThreads());
+                sample(out, "hikari_connections", "pool", pool, "state=\"total\"", stats.getTotalConnections());
+            }
+        });
+        
+        for (ExternalMetric metric : externals) {
+            header(out, metric.name(), metric.type(), metric.help());
+            metric.samples().get().forEach((label, value) -> sample(out, metric.name(), metric.labelName(), label, null, value));
+        }
+        return out.toString();
+    }
+    
+    private static <T> Map<String, T> sorted(Map<String, T> metrics) {
+        return new TreeMap<>(metrics);
+    }
+    
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+    
+    private static void summary(StringBuilder out, String name, String labelName, String labelValue, LatencyHistogram histogram) {
+        for (double quantile : QUANTILES) {
+            sample(out, name, labelName, labelValue, "quantile=\"" + quantile + "\"", seconds(histogram.quantile(quantile)));
+        }
+        sample(out, name + "_sum", labelName, labelValue, null, seconds(histogram.getSumNanos()));
+        sample(out, name + "_count", labelName, labelValue, null, histogram.getCount());
+    }
+    
+    private static void sample(StringBuilder out, String name, String labelName, String labelValue,
+                               String extraLabel, Object value) {
+        out.append(name).append('{').append(labelName).append("=\"").append(escape(labelValue)).append('"');
+        if (extraLabel != null) {
+            out.append(',').append(extraLabel);
+        }
+        out.append("} ").append(value).append('\n');
+    }
+    
+    private static double seconds(long nanos) {
+        return nanos / NANOS_PER_SECOND;
+    }
+    
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,10 @@
+package com.golden.metrics;
+
+/**
+ * 测试模式（app.query-audit.fail-on-violation=true）下检测到 N+1 或慢查询时抛出，使集成测试失败
+ */
+public class QueryAuditViolationException extends RuntimeException {
+    public QueryAuditViolationException(String message) {
+        super(message);
+    }
+}
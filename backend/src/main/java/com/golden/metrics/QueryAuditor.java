@@ -0,0 +1,172 @@
+package com.golden.metrics;
+
+import com.golden.util.SampledLogger;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SQL 审计：N+1 与慢查询检测
+ * 请求进入控制器方法时在当前线程建立审计上下文，QueryAuditInterceptor 记录请求内执行的每条 MappedStatement；
+ * 同一语句在一次请求中执行超过 repeat-threshold 次视为 N+1，单次执行超过 slow-query-ms 视为慢查询。
+ * 发现的问题带上控制器方法名限流输出 WARN 日志，并保留最近的记录和累计次数（/api/monitor/queries）。
+ * 测试模式下直接抛出 {@link QueryAuditViolationException}，用于集成测试拦截回归。
+ */
+@Component
+public class QueryAuditor implements HandlerInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(QueryAuditor.class);
+    private static final SampledLogger FINDING_LOG = SampledLogger.of(logger, "SQL审计问题", 10);
+    private static final String OWNER_ATTRIBUTE = QueryAuditor.class.getName() + ".owner";
+    private static final int RECENT_LIMIT = 200;
+    
+    public static final String N_PLUS_ONE = "N_PLUS_ONE";
+    public static final String SLOW_QUERY = "SLOW_QUERY";
+    
+    private final boolean enabled;
+    private final int repeatThreshold;
+    private final long slowQueryNanos;
+    private final boolean failOnViolation;
+    private final Set<String> ignoredStatements;
+    
+    private final ThreadLocal<RequestContext> current = new ThreadLocal<>();
+    private final ConcurrentMap<String, LongAdder> totals = new ConcurrentHashMap<>();
+    private final Deque<Map<String, Object>> recent = new ArrayDeque<>();
+    private final ReentrantLock recentLock = new ReentrantLock();
+    
+    private static class RequestContext {
+        final String handler;
+        final Map<String, int[]> counts = new HashMap<>();
+        
+        RequestContext(String handler) {
+            this.handler = handler;
+        }
+    }
+    
+    public QueryAuditor(@Value("${app.query-audit.enabled:true}") boolean enabled,
+                        @Value("${app.query-audit.repeat-threshold:5}") int repeatThreshold,
+                        @Value("${app.query-audit.slow-query-ms:200}") long slowQueryMs,
+                        @Value("${app.query-audit.fail-on-violation:false}") boolean failOnViolation,
+                        @Value("${app.query-audit.ignored-statements:}") Set<String> ignoredStatements) {
+        this.enabled = enabled;
+        this.repeatThreshold = repeatThreshold;
+        this.slowQueryNanos = slowQueryMs * 1_000_000L;
+        this.failOnViolation = failOnViolation;
+        this.ignoredStatements = ignoredStatements;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 错误转发等嵌套分发沿用外层请求的上下文
+        if (enabled && handler instanceof HandlerMethod handlerMethod && current.get() == null) {
+            current.set(new RequestContext(EndpointMetricsInterceptor.handlerName(handlerMethod)));
+            request.setAttribute(OWNER_ATTRIBUTE, Boolean.TRUE);
+        }
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(OWNER_ATTRIBUTE) == null) {
+            return;
+        }
+        request.removeAttribute(OWNER_ATTRIBUTE);
+        RequestContext context = current.get();
+        current.remove();
+        if (context == null) {
+            return;
+        }
+        for (Map.Entry<String, int[]> entry : context.counts.entrySet()) {
+            int count = entry.getValue()[0];
+            if (count > repeatThreshold) {
+                report(N_PLUS_ONE, context.handler, entry.getKey(), "count", count);
+            }
+        }
+    }
+    
+    /**
+     * 记录一次语句执行，由 MyBatis 插件在语句执行完成后调用
+     */
+    void onStatement(String statementId, long elapsedNanos) {
+        if (!enabled || ignoredStatements.contains(statementId)) {
+            return;
+        }
+        RequestContext context = current.get();
+        String handler = context == null ? "-" : context.handler;
+        if (elapsedNanos > slowQueryNanos) {
+            report(SLOW_QUERY, handler, statementId, "elapsedMs", elapsedNanos / 1_000_000);
+            if (failOnViolation) {
+                throw new QueryAuditViolationException("慢查询: handler=" + handler + ", statement=" + statementId
+                        + ", elapsedMs=" + elapsedNanos / 1_000_000);
+            }
+        }
+        if (context != null) {
+            int count = ++context.counts.computeIfAbsent(statementId, key -> new int[1])[0];
+            if (failOnViolation && count > repeatThreshold) {
+                throw new QueryAuditViolationException("N+1 查询: handler=" + handler + ", statement=" + statementId
+                        + ", count=" + count + ", threshold=" + repeatThreshold);
+            }
+        }
+    }
+    
+    private void report(String type, String handler, String statementId, String metric, long value) {
+        totals.computeIfAbsent(type + " " + handler + " " + statementId, key -> new LongAdder()).increment();
+        if (FINDING_LOG.sample()) {
+            logger.warn("SQL审计: type={}, handler={}, statement={}, {}={}", type, handler, statementId, metric, value);
+        }
+        Map<String, Object> finding = new LinkedHashMap<>();
+        finding.put("type", type);
+        finding.put("handler", handler);
+        finding.put("statement", statementId);
+        finding.put(metric, value);
+        finding.put("time", LocalDateTime.now());
+        recentLock.lock();
+        try {
+            if (recent.size() >= RECENT_LIMIT) {
+                recent.removeFirst();
+            }
+            recent.addLast(finding);
+        } finally {
+            recentLock.unlock();
+        }
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Long> totalCounts = new LinkedHashMap<>();
+        totals.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> totalCounts.put(entry.getKey(), entry.getValue().sum()));
+        List<Map<String, Object>> recentFindings;
+        recentLock.lock();
+        try {
+            recentFindings = new ArrayList<>(recent);
+        } finally {
+            recentLock.unlock();
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("repeatThreshold", repeatThreshold);
+        result.put("slowQueryMs", slowQueryNanos / 1_000_000);
+        result.put("failOnViolation", failOnViolation);
+        result.put("totals", totalCounts);
+        result.put("recent", recentFindings);
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package com.golden.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * MyBatis 语句指标插件
+ * 拦截 Executor 的 query / update，按 MappedStatement ID（如 com.golden.mapper.ProductMapper.findById）
+ * 记录耗时、返回行数或影响行数、异常次数。由 mybatis-spring-boot-starter 自动注册到 SqlSessionFactory。
+ */
+@Component
+@RequiredArgsConstructor
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class StatementMetricsInterceptor implements Interceptor {
+    private final MetricsRegistry metricsRegistry;
+    
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        boolean error = true;
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            error = false;
+            return result;
+        } finally {
+            metricsRegistry.statement(statement.getId()).record(System.nanoTime() - start, rowCount(result), error);
+        }
+    }
+    
+    private long rowCount(Object result) {
+        if (result instanceof List<?> list) {
+            return list.size();
+        }
+        if (result instanceof Number number) {
+            return number.longValue();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,94 @@
+package com.golden.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 商品搜索分词器
+ * 中日韩文字按单字 + 二元组（bigram）切分；字母数字连续串转为小写后按字符二元组切分，
+ * 使词内子串（如 phon 之于 iphone）也能命中，只有一个字符的串保留原样；其余字符视为分隔符。
+ */
+public final class NGramTokenizer {
+    
+    private NGramTokenizer() {
+    }
+    
+    /**
+     * 建索引用分词：中日韩文字同时产出单字和二元组，保证单字查询也能命中
+     */
+    public static List<String> tokenizeForIndex(String text) {
+        return tokenize(text, true);
+    }
+    
+    /**
+     * 查询用分词：中日韩连续串长度大于 1 时只产出二元组，长度为 1 时产出单字
+     */
+    public static List<String> tokenizeForQuery(String text) {
+        return tokenize(text, false);
+    }
+    
+    private static List<String> tokenize(String text, boolean indexing) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String lower = text.toLowerCase();
+        int length = lower.length();
+        int i = 0;
+        while (i < length) {
+            int cp = lower.codePointAt(i);
+            if (isCjk(cp)) {
+                int start = i;
+                while (i < length && isCjk(lower.codePointAt(i))) {
+                    i += Character.charCount(lower.codePointAt(i));
+                }
+                emitCjk(lower.substring(start, i), indexing, tokens);
+            } else if (Character.isLetterOrDigit(cp)) {
+                int start = i;
+                while (i < length) {
+                    int c = lower.codePointAt(i);
+                    if (!Character.isLetterOrDigit(c) || isCjk(c)) {
+                        break;
+                    }
+                    i += Character.charCount(c);
+                }
+                emitAlphanumeric(lower.substring(start, i), tokens);
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+        return tokens;
+    }
+    
+    private static void emitCjk(String run, boolean indexing, List<String> tokens) {
+        int[] cps = run.codePoints().toArray();
+        if (cps.length == 1 || indexing) {
+            for (int cp : cps) {
+                tokens.add(new String(Character.toChars(cp)));
+            }
+        }
+        for (int j = 0; j + 1 < cps.length; j++) {
+            tokens.add(new String(cps, j, 2));
+        }
+    }
+    
+    // 字母数字串建索引和查询都只产出二元组，子串的二元组一定是原串二元组的子集
+    private static void emitAlphanumeric(String run, List<String> tokens) {
+        int[] cps = run.codePoints().toArray();
+        if (cps.length == 1) {
+            tokens.add(run);
+            return;
+        }
+        for (int j = 0; j + 1 < cps.length; j++) {
+            tokens.add(new String(cps, j, 2));
+        }
+    }
+    
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
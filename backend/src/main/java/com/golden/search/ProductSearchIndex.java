@@ -0,0 +1,249 @@
+package com.golden.search;
+
+import com.golden.entity.Product;
+import com.golden.mapper.ProductMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品全文检索倒排索引
+ * 启动时及定时（search.index.refresh-ms）从 products 表全量构建，本实例的商品增删改时增量更新；
+ * 定时重建用于同步其他实例或直接在数据库中修改的商品。构建期间的增量变更先记录下来，换入新索引后重放。
+ * 名称和描述按 {@link NGramTokenizer} 切成单字/二元组，检索要求查询切出的所有词项都命中（名称或描述中），
+ * 按 TF-IDF 打分排序，名称中的词项权重高于描述。
+ * 与原 LIKE 子串匹配相比：名称或描述中包含关键词子串（如 phon 之于 iphone）的商品一定命中，
+ * 但不要求各二元组在原文中相邻，也允许分别出现在名称和描述中，因此可能多召回；
+ * 单个字母或数字只命中同样由单个字符构成的词，不做子串匹配。
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    
+    private final ProductMapper productMapper;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 启动构建与定时重建互斥，同一时刻只有一次全量构建在记录增量变更
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // 词项 -> (商品ID -> 加权词频)
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    // 商品ID -> 文档信息（用于过滤、排序和删除旧词项）
+    private final Map<Long, Doc> docs = new HashMap<>();
+    // 全量构建期间记录的增量变更，换入新索引后按顺序重放；不在构建中时为 null
+    private List<Runnable> pendingChanges;
+    private volatile boolean ready = false;
+    
+    private static final class Doc {
+        private final Long categoryId;
+        private final Integer status;
+        private final LocalDateTime createdAt;
+        private final Set<String> terms;
+        
+        private Doc(Long categoryId, Integer status, LocalDateTime createdAt, Set<String> terms) {
+            this.categoryId = categoryId;
+            this.status = status;
+            this.createdAt = createdAt;
+            this.terms = terms;
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${search.index.refresh-ms:300000}", fixedDelayString = "${search.index.refresh-ms:300000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+    
+    private void doRebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Product> products;
+        try {
+            products = productMapper.findAllForIndex();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docs.clear();
+            for (Product product : products) {
+                addDoc(product);
+            }
+            // 加载之后发生的增删改不一定包含在快照中，重放一遍
+            replayed = pendingChanges.size();
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("商品搜索索引构建完成: products={}, terms={}, replayed={}, cost={}ms",
+                products.size(), postings.size(), replayed, System.currentTimeMillis() - start);
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * 新增或更新商品索引
+     */
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            Runnable change = () -> {
+                removeDoc(product.getId());
+                addDoc(product);
+            };
+            change.run();
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(productId);
+            if (pendingChanges != null) {
+                pendingChanges.add(() -> removeDoc(productId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * 检索上架商品
+     *
+     * @param keyword    关键词
+     * @param categoryIds 分类ID集合，为 null 时不过滤
+     * @return 按相关度降序排列的商品ID
+     */
+    public List<Long> search(String keyword, Set<Long> categoryIds) {
+        Set<String> terms = new LinkedHashSet<>(NGramTokenizer.tokenizeForQuery(keyword));
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    return new ArrayList<>();
+                }
+                termPostings.add(posting);
+            }
+            // 从最短的倒排表开始求交集
+            termPostings.sort(Comparator.comparingInt(Map::size));
+            int docCount = docs.size();
+            Map<Long, Double> scores = new HashMap<>();
+            for (Map.Entry<Long, Integer> entry : termPostings.get(0).entrySet()) {
+                Doc doc = docs.get(entry.getKey());
+                if (doc == null || !Integer.valueOf(1).equals(doc.status)
+                        || (categoryIds != null && !categoryIds.contains(doc.categoryId))) {
+                    continue;
+                }
+                double score = 0;
+                boolean matched = true;
+                for (Map<Long, Integer> posting : termPostings) {
+                    Integer tf = posting.get(entry.getKey());
+                    if (tf == null) {
+                        matched = false;
+                        break;
+                    }
+                    score += tf * Math.log(1.0 + (double) docCount / posting.size());
+                }
+                if (matched) {
+                    scores.put(entry.getKey(), score);
+                }
+            }
+            List<Long> ids = new ArrayList<>(scores.keySet());
+            ids.sort((a, b) -> {
+                int c = Double.compare(scores.get(b), scores.get(a));
+                if (c != 0) {
+                    return c;
+                }
+                LocalDateTime ca = docs.get(a).createdAt;
+                LocalDateTime cb = docs.get(b).createdAt;
+                if (ca != null && cb != null && !ca.equals(cb)) {
+                    return cb.compareTo(ca);
+                }
+                return Long.compare(b, a);
+            });
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void addDoc(Product product) {
+        Map<String, Integer> tf = new HashMap<>();
+        for (String term : NGramTokenizer.tokenizeForIndex(product.getName())) {
+            tf.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : NGramTokenizer.tokenizeForIndex(product.getDescription())) {
+            tf.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> entry : tf.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(product.getId(), entry.getValue());
+        }
+        docs.put(product.getId(), new Doc(product.getCategoryId(), product.getStatus(),
+                product.getCreatedAt(), tf.keySet()));
+    }
+    
+    private void removeDoc(Long productId) {
+        Doc doc = docs.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
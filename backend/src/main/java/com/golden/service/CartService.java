@@ -1,51 +1,93 @@
 package com.golden.service;
 
+import com.golden.cache.CartStore;
+import com.golden.dto.CartBatchRequest;
 import com.golden.entity.CartItem;
-import com.golden.mapper.CartItemMapper;
+import com.golden.entity.Product;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class CartService {
-    private final CartItemMapper cartItemMapper;
+    private final CartStore cartStore;
+    private final ProductService productService;
     
+    /**
+     * 购物车从内存读取，商品信息取自商品缓存，缓存未命中的商品一次批量加载，不再关联查询 products
+     */
     public List<CartItem> getCart(Long userId) {
-        return cartItemMapper.findByUserId(userId);
+        List<CartItem> items = cartStore.list(userId);
+        List<Long> productIds = new ArrayList<>(items.size());
+        for (CartItem item : items) {
+            productIds.add(item.getProductId());
+        }
+        Map<Long, Product> products = productService.findByIds(productIds);
+        for (CartItem item : items) {
+            Product product = products.get(item.getProductId());
+            if (product != null) {
+                Product summary = new Product();
+                summary.setId(product.getId());
+                summary.setName(product.getName());
+                summary.setPrice(product.getPrice());
+                summary.setImageUrls(product.getImageUrls());
+                item.setProduct(summary);
+            }
+        }
+        return items;
     }
     
     public void addToCart(Long userId, Long productId, Integer quantity) {
-        CartItem existing = cartItemMapper.findByUserIdAndProductId(userId, productId);
-        if (existing != null) {
-            existing.setQuantity(existing.getQuantity() + quantity);
-            cartItemMapper.update(existing);
-        } else {
-            CartItem cartItem = new CartItem();
-            cartItem.setUserId(userId);
-            cartItem.setProductId(productId);
-            cartItem.setQuantity(quantity);
-            cartItemMapper.insert(cartItem);
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("商品数量无效");
+        }
+        Product product = productService.findById(productId);
+        if (product == null || !Integer.valueOf(1).equals(product.getStatus())) {
+            throw new RuntimeException("商品不存在或已下架");
         }
+        cartStore.add(userId, productId, quantity);
     }
     
-    
-    public void updateCartItem(Long id, Integer quantity) {
-        CartItem item = cartItemMapper.findById(id);
-        if (item == null) {
+    public void updateCartItem(Long userId, Long id, Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("商品数量无效");
+        }
+        if (!cartStore.setQuantity(userId, id, quantity)) {
             throw new RuntimeException("购物车项不存在");
         }
-        item.setQuantity(quantity);
-        cartItemMapper.update(item);
     }
     
-    public void removeFromCart(Long id) {
-        cartItemMapper.delete(id);
+    /**
+     * 批量操作购物车，增加或设置数量的商品必须存在且在售（一次批量校验），移除操作不校验
+     */
+    public void batchUpdate(Long userId, CartBatchRequest request) {
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (CartBatchRequest.Operation operation : request.getOperations()) {
+            if (!"remove".equals(operation.getOp())) {
+                productIds.add(operation.getProductId());
+            }
+        }
+        Map<Long, Product> products = productService.findByIds(productIds);
+        for (Long productId : productIds) {
+            Product product = products.get(productId);
+            if (product == null || !Integer.valueOf(1).equals(product.getStatus())) {
+                throw new RuntimeException("商品不存在或已下架: " + productId);
+            }
+        }
+        cartStore.applyBatch(userId, request.getOperations());
+    }
+    
+    public void removeFromCart(Long userId, Long id) {
+        cartStore.remove(userId, id);
     }
     
     public void clearCart(Long userId) {
-        cartItemMapper.deleteByUserId(userId);
+        cartStore.clear(userId);
     }
 }
-
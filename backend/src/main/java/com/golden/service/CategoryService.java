@@ -1,7 +1,7 @@
 package com.golden.service;
 
+import com.golden.cache.CategoryTreeCache;
 import com.golden.entity.Category;
-import com.golden.mapper.CategoryMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -10,14 +10,17 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
-    private final CategoryMapper categoryMapper;
+    private final CategoryTreeCache categoryTreeCache;
     
     public List<Category> findAll() {
-        return categoryMapper.findAll();
+        return categoryTreeCache.findAll();
     }
     
     public List<Category> findByParentId(Long parentId) {
-        return categoryMapper.findByParentId(parentId);
+        return categoryTreeCache.findByParentId(parentId);
+    }
+    
+    public CategoryTreeCache.Snapshot getTree() {
+        return categoryTreeCache.get();
     }
 }
-
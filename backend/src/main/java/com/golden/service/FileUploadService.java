@@ -1,29 +1,63 @@
 package com.golden.service;
 
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.UUID;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
+/**
+ * 图片上传：multipart 流边读边写入临时文件（FileChannel.transferFrom，不在堆上缓冲整个文件），
+ * 同时计算 SHA-256；文件以内容哈希命名，相同图片只存一份，并按哈希前缀分两级子目录存放（ab/cd/abcd....jpg）。
+ * 原图落盘后即返回，缩略图和中图由 ImageDerivativeService 在后台生成。
+ */
 @Service
+@RequiredArgsConstructor
 public class FileUploadService {
     private static final Logger logger = LoggerFactory.getLogger(FileUploadService.class);
     
+    private static final Set<String> ALLOWED_EXTENSIONS = Set.of(".jpg", ".jpeg", ".png", ".gif", ".webp", ".bmp");
+    private static final String TEMP_DIR = ".tmp";
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("[0-9a-f]{64}(_thumb|_medium)?\\.[a-z]+");
+    
+    private final ImageDerivativeService imageDerivativeService;
+    
     @Value("${file.upload.path}")
     private String uploadPath;
     
     @Value("${file.upload.url}")
     private String uploadUrl;
     
-    public String uploadImage(MultipartFile file) throws IOException {
+    /**
+     * 上传图片，返回各尺寸地址：original、thumbnail、medium，以及 hash 和衍生图状态 derivativeStatus。
+     * 衍生图尚未生成完成时地址已经确定，可通过 hash 查询状态；无法生成时缩略图和中图地址回退为原图。
+     */
+    public Map<String, Object> uploadImage(MultipartFile file) throws IOException {
         logger.info("开始上传文件: originalFilename={}, size={} bytes", file.getOriginalFilename(), file.getSize());
         
         if (file.isEmpty()) {
@@ -31,25 +65,140 @@ public class FileUploadService {
             throw new RuntimeException("文件为空");
         }
         
-        String originalFilename = file.getOriginalFilename();
-        String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String filename = UUID.randomUUID().toString() + extension;
+        String extension = extensionOf(file.getOriginalFilename());
+        Path root = Paths.get(uploadPath).toAbsolutePath().normalize();
+        Path tempDir = root.resolve(TEMP_DIR);
+        Files.createDirectories(tempDir);
         
-        logger.debug("生成文件名: originalFilename={}, newFilename={}", originalFilename, filename);
-        
-        File uploadDir = new File(uploadPath);
-        if (!uploadDir.exists()) {
-            logger.info("创建上传目录: path={}", uploadPath);
-            uploadDir.mkdirs();
+        Path temp = Files.createTempFile(tempDir, "upload-", extension);
+        try {
+            String hash = streamToFile(file, temp);
+            String relativePath = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extension;
+            Path target = root.resolve(relativePath);
+            
+            if (Files.exists(target)) {
+                logger.info("文件已存在，复用已有文件: hash={}, path={}", hash, relativePath);
+            } else {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // 并发上传了同一张图片，另一个请求已经落盘
+                    logger.info("文件已被并发写入，复用已有文件: hash={}, path={}", hash, relativePath);
+                }
+            }
+            
+            String fileUrl = uploadUrl + relativePath;
+            logger.info("文件上传成功: path={}, url={}", relativePath, fileUrl);
+            
+            String status = imageDerivativeService.submit(hash, target, relativePath, extension);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("hash", hash);
+            result.put("original", fileUrl);
+            result.putAll(derivativeUrls(relativePath, extension, status));
+            result.put("derivativeStatus", status);
+            return result;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * 查询衍生图生成状态
+     */
+    public Map<String, Object> getDerivativeStatus(String hash) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            throw new IllegalArgumentException("无效的图片标识");
+        }
+        Path directory = Paths.get(uploadPath).toAbsolutePath().normalize()
+                .resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4));
+        String status = imageDerivativeService.getStatus(hash, directory);
+        if (status == null) {
+            throw new RuntimeException("图片不存在或衍生图状态已过期");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hash", hash);
+        result.put("derivativeStatus", status);
+        return result;
+    }
+    
+    /**
+     * 把 /uploads/ 之后的相对路径解析为上传目录内的文件；
+     * 越出上传目录、指向临时文件或隐藏文件、文件不存在时返回 null
+     */
+    public Path resolveStoredFile(String relativePath) {
+        if (relativePath == null || relativePath.isEmpty()
+                || relativePath.indexOf('\\') >= 0 || relativePath.indexOf('\0') >= 0) {
+            return null;
+        }
+        Path root = Paths.get(uploadPath).toAbsolutePath().normalize();
+        Path file;
+        try {
+            file = root.resolve(relativePath).normalize();
+        } catch (InvalidPathException e) {
+            return null;
+        }
+        if (!file.startsWith(root) || file.equals(root)) {
+            return null;
+        }
+        for (Path name : root.relativize(file)) {
+            if (name.toString().startsWith(".")) {
+                return null;
+            }
+        }
+        return Files.isRegularFile(file) ? file : null;
+    }
+    
+    /**
+     * 以内容哈希命名的文件（原图及其衍生图）内容不会变化，可以长期缓存
+     */
+    public boolean isContentAddressed(Path file) {
+        return CONTENT_ADDRESSED_NAME.matcher(file.getFileName().toString()).matches();
+    }
+    
+    private Map<String, Object> derivativeUrls(String relativePath, String extension, String status) {
+        Map<String, Object> urls = new LinkedHashMap<>();
+        boolean available = ImageDerivativeService.STATUS_PENDING.equals(status)
+                || ImageDerivativeService.STATUS_PROCESSING.equals(status)
+                || ImageDerivativeService.STATUS_DONE.equals(status);
+        urls.put("thumbnail", uploadUrl + (available
+                ? imageDerivativeService.derivativePath(relativePath, extension, "thumb") : relativePath));
+        urls.put("medium", uploadUrl + (available
+                ? imageDerivativeService.derivativePath(relativePath, extension, "medium") : relativePath));
+        return urls;
+    }
+    
+    /**
+     * 把上传流写入临时文件并返回内容的 SHA-256（十六进制）
+     */
+    private String streamToFile(MultipartFile file, Path temp) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
         
-        Path path = Paths.get(uploadPath + filename);
-        Files.write(path, file.getBytes());
-        
-        String fileUrl = uploadUrl + filename;
-        logger.info("文件上传成功: filename={}, url={}", filename, fileUrl);
-        
-        return fileUrl;
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+             ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = out.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                position += transferred;
+            }
+            logger.debug("上传流写入临时文件完成: temp={}, bytes={}", temp, position);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private String extensionOf(String originalFilename) {
+        int dot = originalFilename == null ? -1 : originalFilename.lastIndexOf('.');
+        String extension = dot < 0 ? "" : originalFilename.substring(dot).toLowerCase(Locale.ROOT);
+        if (!ALLOWED_EXTENSIONS.contains(extension)) {
+            logger.warn("文件上传失败: 不支持的文件类型, originalFilename={}", originalFilename);
+            throw new RuntimeException("不支持的文件类型");
+        }
+        return extension;
     }
 }
-
@@ -0,0 +1,258 @@
+package com.golden.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片衍生图（缩略图、中图）生成
+ * 原图落盘后提交到有界线程池异步生成，队列满时直接拒绝（AbortPolicy），
+ * 该图片的衍生图地址回退为原图，不阻塞上传请求。衍生图与原图放在同一分片目录：
+ * 原图 ab/cd/{hash}.jpg，缩略图 ab/cd/{hash}_thumb.jpg，中图 ab/cd/{hash}_medium.jpg。
+ * 仅使用 JDK 自带 ImageIO，无法解码的格式（如 webp）不生成衍生图。
+ */
+@Service
+public class ImageDerivativeService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+    
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_DONE = "DONE";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_REJECTED = "REJECTED";
+    public static final String STATUS_UNSUPPORTED = "UNSUPPORTED";
+    
+    private static final String THUMB = "thumb";
+    private static final String MEDIUM = "medium";
+    
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, String> statuses;
+    private final int thumbSize;
+    private final int mediumSize;
+    private final long maxPixels;
+    
+    public ImageDerivativeService(@Value("${file.derivative.workers:2}") int workers,
+                                  @Value("${file.derivative.queue-capacity:200}") int queueCapacity,
+                                  @Value("${file.derivative.thumb-size:200}") int thumbSize,
+                                  @Value("${file.derivative.medium-size:800}") int mediumSize,
+                                  @Value("${file.derivative.max-pixels:40000000}") long maxPixels) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivative-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofHours(1))
+                .build();
+        this.thumbSize = thumbSize;
+        this.mediumSize = mediumSize;
+        this.maxPixels = maxPixels;
+    }
+    
+    /**
+     * ImageIO 能否解码该扩展名的图片
+     */
+    public boolean supports(String extension) {
+        return ImageIO.getImageReadersBySuffix(extension.substring(1)).hasNext();
+    }
+    
+    /**
+     * 衍生图扩展名：png/gif 可能带透明通道，输出 png；其余输出 jpg
+     */
+    public String derivativeExtension(String extension) {
+        return ".png".equals(extension) || ".gif".equals(extension) ? ".png" : ".jpg";
+    }
+    
+    /**
+     * 衍生图相对路径（与原图同目录）
+     */
+    public String derivativePath(String relativePath, String extension, String variant) {
+        String base = relativePath.substring(0, relativePath.length() - extension.length());
+        return base + "_" + variant + derivativeExtension(extension);
+    }
+    
+    /**
+     * 提交衍生图生成任务，返回提交后的状态
+     */
+    public String submit(String hash, Path original, String relativePath, String extension) {
+        if (!supports(extension)) {
+            return STATUS_UNSUPPORTED;
+        }
+        Path thumb = original.resolveSibling(fileName(derivativePath(relativePath, extension, THUMB)));
+        Path medium = original.resolveSibling(fileName(derivativePath(relativePath, extension, MEDIUM)));
+        if (Files.exists(thumb) && Files.exists(medium)) {
+            // 同一内容的图片已经生成过衍生图
+            statuses.put(hash, STATUS_DONE);
+            return STATUS_DONE;
+        }
+        
+        String current = statuses.getIfPresent(hash);
+        if (STATUS_PENDING.equals(current) || STATUS_PROCESSING.equals(current)) {
+            return current;
+        }
+        
+        statuses.put(hash, STATUS_PENDING);
+        try {
+            executor.execute(() -> generate(hash, original, thumb, medium, derivativeExtension(extension)));
+            return STATUS_PENDING;
+        } catch (RejectedExecutionException e) {
+            logger.warn("衍生图队列已满，跳过生成: hash={}, queued={}", hash, executor.getQueue().size());
+            statuses.put(hash, STATUS_REJECTED);
+            return STATUS_REJECTED;
+        }
+    }
+    
+    /**
+     * 查询生成状态；状态记录已过期时根据分片目录下是否存在衍生图判断，都没有则返回 null
+     */
+    public String getStatus(String hash, Path directory) {
+        String status = statuses.getIfPresent(hash);
+        if (status != null) {
+            return status;
+        }
+        for (String extension : new String[]{".jpg", ".png"}) {
+            if (Files.exists(directory.resolve(hash + "_" + THUMB + extension))
+                    && Files.exists(directory.resolve(hash + "_" + MEDIUM + extension))) {
+                return STATUS_DONE;
+            }
+        }
+        return null;
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueRemaining", executor.getQueue().remainingCapacity());
+        stats.put("completed", executor.getCompletedTaskCount());
+        return stats;
+    }
+    
+    private void generate(String hash, Path original, Path thumb, Path medium, String outputExtension) {
+        statuses.put(hash, STATUS_PROCESSING);
+        long start = System.currentTimeMillis();
+        try {
+            BufferedImage source = read(original);
+            String format = outputExtension.substring(1);
+            write(resize(source, mediumSize), medium, format);
+            write(resize(source, thumbSize), thumb, format);
+            statuses.put(hash, STATUS_DONE);
+            logger.info("衍生图生成完成: hash={}, 耗时={}ms", hash, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            statuses.put(hash, STATUS_FAILED);
+            logger.error("衍生图生成失败: hash={}, path={}", hash, original, e);
+        }
+    }
+    
+    /**
+     * 先读取图片尺寸，像素数超过上限时不解码，避免超大图片撑爆堆内存
+     */
+    private BufferedImage read(Path original) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("无法识别的图片格式");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IOException("图片尺寸过大: " + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    /**
+     * 等比缩放到最长边不超过 maxSize，不放大
+     */
+    private BufferedImage resize(BufferedImage source, int maxSize) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        
+        boolean alpha = source.getColorModel().hasAlpha();
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+    
+    /**
+     * 先写临时文件再原子替换，避免读到写了一半的衍生图
+     */
+    private void write(BufferedImage image, Path target, String format) throws IOException {
+        BufferedImage output = image;
+        if ("jpg".equals(format) && image.getColorModel().hasAlpha()) {
+            output = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = output.createGraphics();
+            try {
+                graphics.drawImage(image, 0, 0, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+        }
+        Path temp = Files.createTempFile(target.getParent(), ".derivative-", "." + format);
+        try {
+            if (!ImageIO.write(output, format.toLowerCase(Locale.ROOT), temp.toFile())) {
+                throw new IOException("不支持的输出格式: " + format);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    private String fileName(String relativePath) {
+        return relativePath.substring(relativePath.lastIndexOf('/') + 1);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
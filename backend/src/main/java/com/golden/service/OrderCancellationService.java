@@ -0,0 +1,66 @@
+package com.golden.service;
+
+import com.golden.cache.ProductCache;
+import com.golden.entity.Order;
+import com.golden.entity.OrderStatus;
+import com.golden.mapper.OrderItemMapper;
+import com.golden.mapper.OrderMapper;
+import com.golden.mapper.ProductMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 订单取消
+ * 状态变更和库存归还在同一事务内完成，手动取消、批量取消和超时自动取消共用。
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderCancellationService {
+    private final OrderMapper orderMapper;
+    private final OrderItemMapper orderItemMapper;
+    private final ProductMapper productMapper;
+    private final ProductCache productCache;
+    private final StockReservationLedger stockReservationLedger;
+    
+    /**
+     * 取消仍处于 expected 状态的订单并归还库存
+     * 先锁定订单行筛出仍为原状态的订单，再条件更新为已取消，最后按订单明细一条语句加回库存。
+     *
+     * @return 实际取消的订单ID，其余订单状态已被并发修改或不存在
+     */
+    @Transactional
+    public List<Long> cancel(List<Long> orderIds, OrderStatus expected) {
+        if (orderIds.isEmpty() || !expected.canTransitionTo(OrderStatus.CANCELLED)) {
+            return new ArrayList<>();
+        }
+        List<Long> cancellable = new ArrayList<>(orderIds.size());
+        for (Order order : orderMapper.lockStatusByIds(orderIds)) {
+            if (order.getStatus() != null && order.getStatus() == expected.getCode()) {
+                cancellable.add(order.getId());
+            }
+        }
+        if (cancellable.isEmpty()) {
+            return cancellable;
+        }
+        
+        orderMapper.batchUpdateStatus(cancellable, expected.getCode(), OrderStatus.CANCELLED.getCode());
+        List<Long> productIds = orderItemMapper.findProductIdsByOrderIds(cancellable);
+        productMapper.restoreStockByOrderIds(cancellable);
+        
+        // 提交后商品详情和内存预占账本重新从数据库读取库存
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productCache.invalidateAll(productIds);
+                productIds.forEach(stockReservationLedger::invalidate);
+            }
+        });
+        return cancellable;
+    }
+}
@@ -1,17 +1,28 @@
 package com.golden.service;
 
+import com.golden.cache.CartStore;
+import com.golden.cache.CountCache;
+import com.golden.cache.ProductCache;
+import com.golden.dto.OrderTransitionResult;
 import com.golden.entity.CartItem;
 import com.golden.entity.Order;
 import com.golden.entity.OrderItem;
+import com.golden.entity.OrderStatus;
 import com.golden.entity.Product;
 import com.golden.mapper.*;
+import com.golden.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -19,28 +30,85 @@ import java.util.UUID;
 @Service
 @RequiredArgsConstructor
 public class OrderService {
+    // 批量变更状态时每条 SQL 处理的订单数
+    private static final int STATUS_BATCH_SIZE = 1000;
+    
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
     private final CartItemMapper cartItemMapper;
     private final ProductMapper productMapper;
+    private final StockReservationLedger stockReservationLedger;
+    private final ProductCache productCache;
+    private final CountCache countCache;
+    private final CartStore cartStore;
+    private final OrderCancellationService orderCancellationService;
+    private final OrderTimeoutScheduler orderTimeoutScheduler;
     
     @Transactional
     public Order createOrder(Long userId, String shippingAddress) {
+        // 先把内存购物车中尚未写回的数量变化刷到数据库
+        cartStore.flush(userId);
         List<CartItem> cartItems = cartItemMapper.findByUserId(userId);
         if (cartItems.isEmpty()) {
             throw new RuntimeException("购物车为空");
         }
         
+        // 一次 IN 查询加载购物车内全部商品，避免逐项查询
+        List<Long> productIds = new ArrayList<>(cartItems.size());
+        for (CartItem item : cartItems) {
+            productIds.add(item.getProductId());
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productMapper.findByIds(productIds)) {
+            products.put(product.getId(), product);
+        }
+        
         BigDecimal totalAmount = BigDecimal.ZERO;
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
+        Map<Long, Integer> quantities = new HashMap<>();
         for (CartItem item : cartItems) {
-            Product product = productMapper.findById(item.getProductId());
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new RuntimeException("商品数量无效");
+            }
+            Product product = products.get(item.getProductId());
             if (product == null || product.getStock() < item.getQuantity()) {
                 throw new RuntimeException("商品库存不足");
             }
-            totalAmount = totalAmount.add(product.getPrice().multiply(new BigDecimal(item.getQuantity())));
+            stockReservationLedger.seed(product.getId(), product.getStock());
+            quantities.put(item.getProductId(), item.getQuantity());
+            BigDecimal subtotal = product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            totalAmount = totalAmount.add(subtotal);
+            
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProductId(item.getProductId());
+            orderItem.setQuantity(item.getQuantity());
+            orderItem.setPrice(product.getPrice());
+            orderItem.setSubtotal(subtotal);
+            orderItems.add(orderItem);
         }
         
+        // 内存预占库存，热点商品售罄时直接拒绝；事务回滚后归还，
+        // 提交后使本实例的商品缓存和订单总数缓存失效，并登记未支付超时取消（其他实例的订单由定期扫描登记）
+        if (!stockReservationLedger.tryReserve(quantities)) {
+            throw new RuntimeException("商品库存不足");
+        }
         Order order = new Order();
+        Instant createdAt = Instant.now();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    cartStore.evict(userId);
+                    productCache.invalidateAll(quantities.keySet());
+                    countCache.invalidate("orders", "user=" + userId);
+                    countCache.invalidate("orders", "all");
+                    orderTimeoutScheduler.schedule(order.getId(), createdAt);
+                } else {
+                    stockReservationLedger.release(quantities);
+                }
+            }
+        });
+        
         order.setUserId(userId);
         order.setOrderNo(UUID.randomUUID().toString().replace("-", ""));
         order.setTotalAmount(totalAmount);
@@ -48,31 +116,39 @@ public class OrderService {
         order.setShippingAddress(shippingAddress);
         orderMapper.insert(order);
         
-        for (CartItem item : cartItems) {
-            Product product = productMapper.findById(item.getProductId());
-            OrderItem orderItem = new OrderItem();
+        // 多行插入订单项
+        for (OrderItem orderItem : orderItems) {
             orderItem.setOrderId(order.getId());
-            orderItem.setProductId(item.getProductId());
-            orderItem.setQuantity(item.getQuantity());
-            orderItem.setPrice(product.getPrice());
-            orderItem.setSubtotal(product.getPrice().multiply(new BigDecimal(item.getQuantity())));
-            orderItemMapper.insert(orderItem);
-            
-            // 减少库存
-            product.setStock(product.getStock() - item.getQuantity());
-            productMapper.update(product);
+        }
+        orderItemMapper.batchInsert(orderItems);
+        
+        // 原子条件扣减库存，影响行数不足说明并发下单已抢光库存
+        int updated = cartItems.size() == 1
+                ? productMapper.decreaseStock(cartItems.get(0).getProductId(), cartItems.get(0).getQuantity())
+                : productMapper.batchDecreaseStock(cartItems);
+        if (updated != cartItems.size()) {
+            quantities.keySet().forEach(stockReservationLedger::invalidate);
+            throw new RuntimeException("商品库存不足");
         }
         
-        // 清空购物车
+        // 清空购物车：必须与下单同事务完成，异步清空时用户在事件投递前再次提交会用同一购物车重复下单
         cartItemMapper.deleteByUserId(userId);
         
         return order;
     }
     
-    public Map<String, Object> getOrders(Long userId, Integer page, Integer pageSize) {
+    /**
+     * 用户订单列表
+     *
+     * @param withItems 为 true 时用一条 IN 查询批量加载本页所有订单的明细及商品摘要
+     */
+    public Map<String, Object> getOrders(Long userId, Integer page, Integer pageSize, boolean withItems) {
         Integer offset = (page - 1) * pageSize;
         List<Order> orders = orderMapper.findByUserId(userId, offset, pageSize);
-        int total = orderMapper.countByUserId(userId);
+        int total = countCache.get("orders", "user=" + userId, () -> orderMapper.countByUserId(userId));
+        if (withItems) {
+            attachItems(orders);
+        }
         
         Map<String, Object> result = new HashMap<>();
         result.put("list", orders);
@@ -82,31 +158,167 @@ public class OrderService {
         return result;
     }
     
+    public Map<String, Object> getOrdersByCursor(Long userId, String cursor, Integer pageSize, boolean withItems) {
+        List<Order> rows = orderMapper.findByUserIdByCursor(userId, PageCursor.decode(cursor), pageSize + 1);
+        if (withItems) {
+            attachItems(rows.subList(0, Math.min(rows.size(), pageSize)));
+        }
+        return PageCursor.toPage(rows, pageSize, o -> new PageCursor(o.getCreatedAt(), o.getId()));
+    }
+    
+    /**
+     * 订单详情，包含明细及商品摘要（名称、图片），一次查询返回
+     */
     public Order getOrderDetail(Long id) {
-        return orderMapper.findById(id);
+        return orderMapper.findDetailById(id);
     }
     
     public List<OrderItem> getOrderItems(Long orderId) {
         return orderItemMapper.findByOrderId(orderId);
     }
     
+    private void attachItems(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        Map<Long, List<OrderItem>> itemsByOrder = new HashMap<>();
+        for (Order order : orders) {
+            orderIds.add(order.getId());
+            List<OrderItem> items = new ArrayList<>();
+            itemsByOrder.put(order.getId(), items);
+            order.setItems(items);
+        }
+        for (OrderItem item : orderItemMapper.findByOrderIds(orderIds)) {
+            itemsByOrder.get(item.getOrderId()).add(item);
+        }
+    }
+    
+    /**
+     * 变更订单状态，只允许 {@link OrderStatus} 中定义的流转；并发修改时条件更新失败并提示刷新。
+     * 取消订单时同一事务内归还库存
+     */
     public void updateOrderStatus(Long id, Integer status) {
+        OrderStatus target = OrderStatus.of(status);
+        if (target == null) {
+            throw new RuntimeException("订单状态无效");
+        }
         Order order = orderMapper.findById(id);
-        order.setStatus(status);
-        orderMapper.update(order);
+        if (order == null) {
+            throw new RuntimeException("订单不存在");
+        }
+        OrderStatus current = OrderStatus.of(order.getStatus());
+        String error = transitionError(current, target);
+        if (error != null) {
+            throw new RuntimeException(error);
+        }
+        boolean updated = target == OrderStatus.CANCELLED
+                ? !orderCancellationService.cancel(List.of(id), current).isEmpty()
+                : orderMapper.updateStatus(id, current.getCode(), target.getCode()) > 0;
+        if (!updated) {
+            throw new RuntimeException("订单状态已变更，请刷新后重试");
+        }
     }
     
-    public Map<String, Object> getAllOrders(Integer page, Integer pageSize) {
+    /**
+     * 批量变更订单状态，返回每个订单的处理结果（顺序与入参一致，重复ID只处理一次）。
+     * 每批订单先一次查出当前状态，按原状态分组后各执行一条条件 UPDATE；
+     * 影响行数与预期不符时重新查询该组，状态已是目标状态的记为成功，其余为并发冲突。
+     * 各批独立提交，部分失败不影响其他订单。
+     */
+    public List<OrderTransitionResult> batchUpdateOrderStatus(List<Long> orderIds, Integer status) {
+        OrderStatus target = OrderStatus.of(status);
+        if (target == null) {
+            throw new RuntimeException("订单状态无效");
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        Map<Long, OrderTransitionResult> results = new LinkedHashMap<>();
+        for (Long id : ids) {
+            results.put(id, null);
+        }
+        
+        for (int from = 0; from < ids.size(); from += STATUS_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + STATUS_BATCH_SIZE, ids.size()));
+            Map<Long, Integer> currentStatus = findStatus(batch);
+            Map<OrderStatus, List<Long>> bySource = new LinkedHashMap<>();
+            for (Long id : batch) {
+                Integer code = currentStatus.get(id);
+                if (code == null) {
+                    results.put(id, OrderTransitionResult.failure(id, null, "订单不存在"));
+                    continue;
+                }
+                OrderStatus current = OrderStatus.of(code);
+                String error = transitionError(current, target);
+                if (error != null) {
+                    results.put(id, OrderTransitionResult.failure(id, code, error));
+                    continue;
+                }
+                bySource.computeIfAbsent(current, k -> new ArrayList<>()).add(id);
+            }
+            
+            for (Map.Entry<OrderStatus, List<Long>> entry : bySource.entrySet()) {
+                List<Long> group = entry.getValue();
+                int updated = target == OrderStatus.CANCELLED
+                        ? orderCancellationService.cancel(group, entry.getKey()).size()
+                        : orderMapper.batchUpdateStatus(group, entry.getKey().getCode(), target.getCode());
+                Map<Long, Integer> after = updated == group.size() ? null : findStatus(group);
+                for (Long id : group) {
+                    Integer code = after == null ? Integer.valueOf(target.getCode()) : after.get(id);
+                    results.put(id, code != null && code == target.getCode()
+                            ? OrderTransitionResult.success(id, code)
+                            : OrderTransitionResult.failure(id, code, "订单状态已变更，请刷新后重试"));
+                }
+            }
+        }
+        return new ArrayList<>(results.values());
+    }
+    
+    private Map<Long, Integer> findStatus(List<Long> ids) {
+        Map<Long, Integer> statuses = new HashMap<>();
+        for (Order order : orderMapper.findStatusByIds(ids)) {
+            statuses.put(order.getId(), order.getStatus());
+        }
+        return statuses;
+    }
+    
+    /**
+     * 校验状态流转，合法时返回 null，否则返回失败原因
+     */
+    private String transitionError(OrderStatus current, OrderStatus target) {
+        if (current == null) {
+            return "订单当前状态未知";
+        }
+        if (current == target) {
+            return "订单已是" + target.getLabel() + "状态";
+        }
+        if (!current.canTransitionTo(target)) {
+            return "订单状态不允许从" + current.getLabel() + "变更为" + target.getLabel();
+        }
+        return null;
+    }
+    
+    /**
+     * 管理后台订单列表
+     *
+     * @param approximateTotal 为 true 时总数取 information_schema 中的表行数估算值，不执行 COUNT(*)
+     */
+    public Map<String, Object> getAllOrders(Integer page, Integer pageSize, boolean approximateTotal) {
         Integer offset = (page - 1) * pageSize;
         List<Order> orders = orderMapper.findAll(offset, pageSize);
-        int total = orderMapper.countAll();
+        Long estimated = approximateTotal ? orderMapper.estimateCountAll() : null;
+        long total = estimated != null ? estimated : countCache.get("orders", "all", orderMapper::countAll);
         
         Map<String, Object> result = new HashMap<>();
         result.put("list", orders);
         result.put("total", total);
+        result.put("approximate", estimated != null);
         result.put("page", page);
         result.put("pageSize", pageSize);
         return result;
     }
+    
+    public Map<String, Object> getAllOrdersByCursor(String cursor, Integer pageSize) {
+        List<Order> rows = orderMapper.findAllByCursor(PageCursor.decode(cursor), pageSize + 1);
+        return PageCursor.toPage(rows, pageSize, o -> new PageCursor(o.getCreatedAt(), o.getId()));
+    }
 }
-
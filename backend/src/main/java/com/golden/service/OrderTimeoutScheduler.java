@@ -0,0 +1,187 @@
+package com.golden.service;
+
+import com.golden.dto.PendingOrder;
+import com.golden.entity.OrderStatus;
+import com.golden.mapper.OrderMapper;
+import com.golden.metrics.MetricsRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 未支付订单超时自动取消
+ * 待支付订单按截止时间放入内存 DelayQueue，到期后由后台线程批量取出，
+ * 通过 {@link OrderCancellationService} 条件取消并归还库存；期间已支付的订单条件不满足，自动跳过。
+ * 启动时及定时按 idx_status 索引扫描 status = 0 的订单补齐队列，覆盖重启前和其他实例创建的订单，
+ * 不做全表轮询。多实例同时处理同一订单时由条件更新保证只取消一次。
+ */
+@Component
+public class OrderTimeoutScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(OrderTimeoutScheduler.class);
+    private static final long RETRY_DELAY_MILLIS = 30_000;
+    
+    private final OrderMapper orderMapper;
+    private final OrderCancellationService orderCancellationService;
+    private final boolean enabled;
+    private final long timeoutMillis;
+    private final int batchSize;
+    
+    private final DelayQueue<Deadline> queue = new DelayQueue<>();
+    private final Set<Long> tracked = ConcurrentHashMap.newKeySet();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile Thread worker;
+    
+    /**
+     * 订单ID + 截止时间（毫秒时间戳）
+     */
+    private record Deadline(long orderId, long deadlineMillis) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+        
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineMillis, ((Deadline) other).deadlineMillis);
+        }
+    }
+    
+    public OrderTimeoutScheduler(OrderMapper orderMapper,
+                                 OrderCancellationService orderCancellationService,
+                                 MetricsRegistry metricsRegistry,
+                                 @Value("${order.unpaid-timeout.enabled:true}") boolean enabled,
+                                 @Value("${order.unpaid-timeout.seconds:1800}") long timeoutSeconds,
+                                 @Value("${order.unpaid-timeout.batch-size:200}") int batchSize) {
+        this.orderMapper = orderMapper;
+        this.orderCancellationService = orderCancellationService;
+        this.enabled = enabled;
+        this.timeoutMillis = TimeUnit.SECONDS.toMillis(timeoutSeconds);
+        this.batchSize = batchSize;
+        metricsRegistry.register("order_timeout_pending", "gauge", "等待超时检查的待支付订单数", "queue",
+                () -> Map.of("unpaid", queue.size()));
+        metricsRegistry.register("order_timeout_processed_total", "counter", "超时检查处理结果", "result",
+                () -> Map.of("cancelled", cancelled.sum(), "skipped", skipped.sum(), "failed", failures.sum()));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        reload();
+        Thread thread = new Thread(this::run, "order-timeout");
+        thread.setDaemon(true);
+        // 先发布 worker 再启动线程，否则线程可能在赋值前检查循环条件而直接退出
+        worker = thread;
+        thread.start();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+    
+    /**
+     * 登记新订单的超时时间，应在下单事务提交后调用
+     */
+    public void schedule(Long orderId, Instant createdAt) {
+        long start = createdAt != null ? createdAt.toEpochMilli() : System.currentTimeMillis();
+        track(orderId, start + timeoutMillis);
+    }
+    
+    /**
+     * 扫描待支付订单，把尚未登记的加入队列。
+     * 截止时间按数据库算出的已下单时长推算，不把 created_at 按 JVM 默认时区换算，
+     * 避免 JVM 与 MySQL 会话时区不同时提前或延后取消
+     */
+    @Scheduled(initialDelayString = "${order.unpaid-timeout.sweep-ms:600000}", fixedDelayString = "${order.unpaid-timeout.sweep-ms:600000}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int before = queue.size();
+        orderMapper.scanPending(context -> {
+            PendingOrder order = context.getResultObject();
+            long ageMillis = order.getAgeSeconds() == null ? 0 : TimeUnit.SECONDS.toMillis(order.getAgeSeconds());
+            track(order.getOrderId(), start - ageMillis + timeoutMillis);
+        });
+        logger.info("待支付订单超时队列已加载: added={}, pending={}, cost={}ms",
+                queue.size() - before, queue.size(), System.currentTimeMillis() - start);
+    }
+    
+    private void track(Long orderId, long deadlineMillis) {
+        if (!enabled || orderId == null) {
+            return;
+        }
+        if (tracked.add(orderId)) {
+            queue.put(new Deadline(orderId, deadlineMillis));
+        }
+    }
+    
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            List<Deadline> batch = new ArrayList<>(batchSize);
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            List<Long> orderIds = new ArrayList<>(batch.size());
+            for (Deadline deadline : batch) {
+                orderIds.add(deadline.orderId());
+            }
+            try {
+                int count = orderCancellationService.cancel(orderIds, OrderStatus.PENDING).size();
+                cancelled.add(count);
+                skipped.add(orderIds.size() - count);
+                batch.forEach(deadline -> tracked.remove(deadline.orderId()));
+                if (count > 0) {
+                    logger.info("超时未支付订单已取消: count={}", count);
+                }
+            } catch (Exception e) {
+                // 数据库异常时整批稍后重试
+                failures.add(orderIds.size());
+                logger.warn("超时订单取消失败，{}ms 后重试: count={}, error={}", RETRY_DELAY_MILLIS, orderIds.size(), e.getMessage());
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+                batch.forEach(deadline -> queue.put(new Deadline(deadline.orderId(), retryAt)));
+            }
+        }
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("timeoutSeconds", TimeUnit.MILLISECONDS.toSeconds(timeoutMillis));
+        result.put("pending", queue.size());
+        result.put("cancelled", cancelled.sum());
+        result.put("skipped", skipped.sum());
+        result.put("failures", failures.sum());
+        return result;
+    }
+}
@@ -1,47 +1,166 @@
 package com.golden.service;
 
+import com.golden.cache.CategoryTreeCache;
+import com.golden.cache.CountCache;
+import com.golden.cache.ProductCache;
+import com.golden.cache.RatingStatsStore;
+import com.golden.dto.RatingSummary;
 import com.golden.entity.Product;
 import com.golden.mapper.ProductMapper;
+import com.golden.search.ProductSearchIndex;
+import com.golden.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
     private final ProductMapper productMapper;
+    private final StockReservationLedger stockReservationLedger;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final CountCache countCache;
+    private final CategoryTreeCache categoryTreeCache;
+    private final RatingStatsStore ratingStatsStore;
     
-    public Map<String, Object> findAll(Long categoryId, String keyword, Integer page, Integer pageSize) {
+    /**
+     * 分页查询商品列表
+     *
+     * @param includeChildren 为 true 时按分类及其所有后代分类过滤
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> findAll(Long categoryId, boolean includeChildren, String keyword,
+                                       Integer page, Integer pageSize) {
         Integer offset = (page - 1) * pageSize;
-        List<Product> products = productMapper.findAll(categoryId, keyword, offset, pageSize);
-        int total = productMapper.count(categoryId, keyword);
+        Set<Long> categoryIds = categoryFilter(categoryId, includeChildren);
+        List<Product> products;
+        int total;
+        if (keyword != null && !keyword.isBlank() && productSearchIndex.isReady()) {
+            // 关键词搜索走倒排索引，数据库只按ID回表
+            List<Long> ids = productSearchIndex.search(keyword, categoryIds);
+            total = ids.size();
+            products = hydrate(ids.subList(Math.min(offset, total), Math.min(offset + pageSize, total)));
+        } else {
+            products = productMapper.findAll(categoryIds, keyword, offset, pageSize);
+            total = countCache.get("products", "category=" + categoryId + ",children=" + includeChildren
+                    + ",keyword=" + keyword, () -> productMapper.count(categoryIds, keyword));
+        }
         
         Map<String, Object> result = new HashMap<>();
         result.put("list", products);
         result.put("total", total);
         result.put("page", page);
         result.put("pageSize", pageSize);
+        result.put("ratings", ratings(products));
         return result;
     }
     
+    /**
+     * 游标分页查询商品列表，按 (created_at, id) 倒序定位，不受页码深度影响
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> findAllByCursor(Long categoryId, boolean includeChildren, String keyword,
+                                               String cursor, Integer pageSize) {
+        List<Product> rows = productMapper.findAllByCursor(categoryFilter(categoryId, includeChildren), keyword,
+                PageCursor.decode(cursor), pageSize + 1);
+        Map<String, Object> result = PageCursor.toPage(rows, pageSize, p -> new PageCursor(p.getCreatedAt(), p.getId()));
+        result.put("ratings", ratings(rows.subList(0, Math.min(rows.size(), pageSize))));
+        return result;
+    }
+    
+    /**
+     * 当前页商品的评分汇总（商品ID -> 汇总），从内存读取
+     */
+    private Map<Long, RatingSummary> ratings(List<Product> products) {
+        List<Long> ids = new ArrayList<>(products.size());
+        for (Product product : products) {
+            ids.add(product.getId());
+        }
+        return ratingStatsStore.summaries(ids);
+    }
+    
+    private Set<Long> categoryFilter(Long categoryId, boolean includeChildren) {
+        if (categoryId == null) {
+            return null;
+        }
+        return includeChildren ? categoryTreeCache.descendantIds(categoryId) : Set.of(categoryId);
+    }
+    
+    /**
+     * 按给定ID顺序回表加载商品
+     */
+    private List<Product> hydrate(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productMapper.findByIds(ids)) {
+            byId.put(product.getId(), product);
+        }
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = byId.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+    
     public Product findById(Long id) {
-        return productMapper.findById(id);
+        return productCache.get(id, productMapper::findById);
+    }
+    
+    /**
+     * 批量读取商品，缓存未命中的部分用一条 IN 查询加载
+     *
+     * @return 商品ID -> 商品，不存在的ID不在结果中
+     */
+    public Map<Long, Product> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        return productCache.getAll(ids, productMapper::findByIds);
     }
     
     public void create(Product product) {
         product.setStatus(1);
         productMapper.insert(product);
+        if (product.getCreatedAt() == null) {
+            product.setCreatedAt(LocalDateTime.now());
+        }
+        productSearchIndex.index(product);
+        countCache.invalidateTable("products");
     }
     
     public void update(Product product) {
         productMapper.update(product);
+        productCache.invalidate(product.getId());
+        Product updated = productMapper.findById(product.getId());
+        if (updated != null) {
+            productSearchIndex.index(updated);
+        }
+        countCache.invalidateTable("products");
+        if (product.getStock() != null) {
+            stockReservationLedger.invalidate(product.getId());
+        }
     }
     
     public void delete(Long id) {
         productMapper.delete(id);
+        productCache.invalidate(id);
+        productSearchIndex.remove(id);
+        countCache.invalidateTable("products");
+        stockReservationLedger.invalidate(id);
     }
 }
 
@@ -1,10 +1,20 @@
 package com.golden.service;
 
+import com.golden.cache.CountCache;
+import com.golden.cache.RatingStatsStore;
+import com.golden.cache.ReviewPageCache;
+import com.golden.dto.RatingSummary;
 import com.golden.entity.Review;
+import com.golden.mapper.ProductRatingStatsMapper;
 import com.golden.mapper.ReviewMapper;
+import com.golden.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,11 +23,19 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ReviewService {
     private final ReviewMapper reviewMapper;
+    private final CountCache countCache;
+    private final ProductRatingStatsMapper productRatingStatsMapper;
+    private final RatingStatsStore ratingStatsStore;
+    private final ReviewPageCache reviewPageCache;
     
+    @Transactional(readOnly = true)
     public Map<String, Object> getReviews(Long productId, Integer page, Integer pageSize) {
         Integer offset = (page - 1) * pageSize;
-        List<Review> reviews = reviewMapper.findByProductId(productId, offset, pageSize);
-        int total = reviewMapper.countByProductId(productId);
+        // 前几页走缓存，更深的分页直接查库
+        List<Review> reviews = reviewPageCache.cacheable(page, pageSize)
+                ? reviewPageCache.get(productId, page, () -> reviewMapper.findByProductId(productId, offset, pageSize))
+                : reviewMapper.findByProductId(productId, offset, pageSize);
+        int total = countCache.get("reviews", "product=" + productId, () -> reviewMapper.countByProductId(productId));
         
         Map<String, Object> result = new HashMap<>();
         result.put("list", reviews);
@@ -27,8 +45,43 @@ public class ReviewService {
         return result;
     }
     
+    @Transactional(readOnly = true)
+    public Map<String, Object> getReviewsByCursor(Long productId, String cursor, Integer pageSize) {
+        List<Review> rows = reviewMapper.findByProductIdByCursor(productId, PageCursor.decode(cursor), pageSize + 1);
+        return PageCursor.toPage(rows, pageSize, r -> new PageCursor(r.getCreatedAt(), r.getId()));
+    }
+    
+    /**
+     * 发表评价，同一事务内累加商品评分汇总，提交后再更新内存中的汇总
+     */
+    @Transactional
     public void createReview(Review review) {
+        if (review.getProductId() == null) {
+            throw new RuntimeException("商品不能为空");
+        }
+        if (review.getRating() == null || review.getRating() < 1 || review.getRating() > 5) {
+            throw new RuntimeException("评分必须在1到5星之间");
+        }
         reviewMapper.insert(review);
+        productRatingStatsMapper.increment(review.getProductId(), review.getRating());
+        
+        Long productId = review.getProductId();
+        int rating = review.getRating();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ratingStatsStore.record(productId, rating);
+                reviewPageCache.invalidateProduct(productId);
+                countCache.invalidate("reviews", "product=" + productId);
+            }
+        });
+    }
+    
+    /**
+     * 批量获取商品评分汇总，直接读内存，不访问数据库
+     */
+    public Map<Long, RatingSummary> getRatings(Collection<Long> productIds) {
+        return ratingStatsStore.summaries(productIds);
     }
 }
 
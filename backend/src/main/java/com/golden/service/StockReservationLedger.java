@@ -0,0 +1,121 @@
+package com.golden.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 库存预占账本
+ * 在数据库条件扣减之前，于内存中按商品维护可售库存，热点商品售罄后直接拒绝，不再访问数据库。
+ * 账本只是前置过滤，数据库的条件扣减（stock >= ?）才是最终依据。
+ */
+@Component
+public class StockReservationLedger {
+    private static final int STRIPES = 64;
+    
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Map<Long, Integer> available = new ConcurrentHashMap<>();
+    
+    public StockReservationLedger() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+    
+    /**
+     * 用数据库读到的库存初始化账本，已有记录时不覆盖
+     */
+    public void seed(Long productId, Integer stock) {
+        if (stock != null) {
+            available.putIfAbsent(productId, stock);
+        }
+    }
+    
+    /**
+     * 预占一组商品库存，全部满足才扣减，否则不做任何修改
+     *
+     * @param quantities 商品ID -> 数量
+     * @return 是否预占成功
+     */
+    public boolean tryReserve(Map<Long, Integer> quantities) {
+        TreeSet<Integer> stripes = stripesOf(quantities);
+        lockAll(stripes);
+        try {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                Integer stock = available.get(entry.getKey());
+                if (stock != null && stock < entry.getValue()) {
+                    return false;
+                }
+            }
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                available.computeIfPresent(entry.getKey(), (id, stock) -> stock - entry.getValue());
+            }
+            return true;
+        } finally {
+            unlockAll(stripes);
+        }
+    }
+    
+    /**
+     * 归还预占的库存（事务回滚时调用）
+     */
+    public void release(Map<Long, Integer> quantities) {
+        TreeSet<Integer> stripes = stripesOf(quantities);
+        lockAll(stripes);
+        try {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                available.computeIfPresent(entry.getKey(), (id, stock) -> stock + entry.getValue());
+            }
+        } finally {
+            unlockAll(stripes);
+        }
+    }
+    
+    /**
+     * 移除商品记录，下次下单时重新从数据库加载
+     */
+    public void invalidate(Long productId) {
+        ReentrantLock lock = locks[stripe(productId)];
+        lock.lock();
+        try {
+            available.remove(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 账本中商品的可售库存，未加载时返回 null
+     */
+    Integer available(Long productId) {
+        return available.get(productId);
+    }
+
+    private int stripe(Long productId) {
+        return (Long.hashCode(productId) & 0x7fffffff) % STRIPES;
+    }
+    
+    // 按分段序号升序加锁，避免多个订单交叉加锁造成死锁
+    private TreeSet<Integer> stripesOf(Map<Long, Integer> quantities) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (Long productId : quantities.keySet()) {
+            stripes.add(stripe(productId));
+        }
+        return stripes;
+    }
+    
+    private void lockAll(TreeSet<Integer> stripes) {
+        for (Integer stripe : stripes) {
+            locks[stripe].lock();
+        }
+    }
+    
+    private void unlockAll(TreeSet<Integer> stripes) {
+        for (Integer stripe : stripes.descendingSet()) {
+            locks[stripe].unlock();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.golden.service;
 
+import com.golden.cache.ReviewPageCache;
 import com.golden.dto.LoginRequest;
 import com.golden.dto.LoginResponse;
 import com.golden.dto.RegisterRequest;
@@ -19,6 +20,7 @@ public class UserService {
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final ReviewPageCache reviewPageCache;
     
     public LoginResponse login(LoginRequest request) {
         logger.debug("开始验证用户登录: username={}", request.getUsername());
@@ -80,6 +82,10 @@ public class UserService {
         logger.info("更新用户信息: userId={}, username={}", userId, user.getUsername());
         user.setId(userId);
         userMapper.update(user);
+        // 评价缓存页中带有用户名和头像
+        if (user.getAvatar() != null || user.getUsername() != null) {
+            reviewPageCache.invalidateUser(userId);
+        }
         logger.info("用户信息更新成功: userId={}", userId);
     }
 }
@@ -0,0 +1,31 @@
+package com.golden.util;
+
+/**
+ * HTTP ETag 条件请求判断
+ */
+public final class ETags {
+    
+    private ETags() {
+    }
+    
+    /**
+     * If-None-Match 使用弱比较，支持逗号分隔的多个 ETag 和 *
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String current = stripWeak(etag.trim());
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = stripWeak(candidate.trim());
+            if (tag.equals("*") || tag.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -1,8 +1,11 @@
 package com.golden.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,6 +18,7 @@ import java.util.Date;
 @Component
 public class JwtUtil {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
+    private static final SampledLogger INVALID_TOKEN_LOG = SampledLogger.of(logger, "JWT Token无效", 5);
     
     @Value("${jwt.secret}")
     private String secret;
@@ -22,12 +26,17 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    // 密钥和解析器线程安全，启动时构建一次后复用
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
     
     public String generateToken(Long userId, String username) {
-        logger.debug("生成JWT Token: userId={}, username={}", userId, username);
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
         
@@ -36,42 +45,44 @@ public class JwtUtil {
                 .claim("username", username)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
         
-        logger.debug("JWT Token生成成功: userId={}, expiresAt={}", userId, expiryDate);
+        if (logger.isDebugEnabled()) {
+            logger.debug("JWT Token生成成功: userId={}, username={}, expiresAt={}", userId, username, expiryDate);
+        }
         return token;
     }
     
+    /**
+     * 校验签名和有效期并返回声明
+     *
+     * @throws JwtException Token 无效或已过期
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+    
     public Long getUserIdFromToken(String token) {
         try {
-            logger.debug("解析JWT Token获取用户ID");
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            Long userId = Long.parseLong(claims.getSubject());
-            logger.debug("JWT Token解析成功: userId={}", userId);
-            return userId;
-        } catch (Exception e) {
-            logger.error("JWT Token解析失败: error={}", e.getMessage(), e);
+            return Long.parseLong(parseClaims(token).getSubject());
+        } catch (JwtException | IllegalArgumentException e) {
+            if (INVALID_TOKEN_LOG.sample()) {
+                logger.info("JWT Token解析失败: error={}", e.getMessage());
+            }
             throw new RuntimeException("Token无效", e);
         }
     }
     
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token);
-            logger.debug("JWT Token验证成功");
+            parseClaims(token);
             return true;
-        } catch (Exception e) {
-            logger.warn("JWT Token验证失败: error={}", e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            if (INVALID_TOKEN_LOG.sample()) {
+                logger.info("JWT Token验证失败: error={}", e.getMessage());
+            }
             return false;
         }
     }
 }
-
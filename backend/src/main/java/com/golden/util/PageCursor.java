@@ -0,0 +1,64 @@
+package com.golden.util;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 游标分页位置
+ * 列表按 (created_at, id) 倒序排列，游标记录上一页最后一条记录的位置，
+ * 对客户端以不透明的 Base64URL 字符串传递。
+ */
+@Getter
+public class PageCursor {
+    private final LocalDateTime createdAt;
+    private final Long id;
+    
+    public PageCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+    
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 解析游标，空字符串表示第一页，返回 null
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+    
+    /**
+     * 组装游标分页结果，rows 需按 pageSize + 1 条查询，多出的一条用于判断是否还有下一页
+     */
+    public static <T> Map<String, Object> toPage(List<T> rows, Integer pageSize, Function<T, PageCursor> positionOf) {
+        boolean hasMore = rows.size() > pageSize;
+        List<T> list = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("list", list);
+        result.put("pageSize", pageSize);
+        result.put("hasMore", hasMore);
+        result.put("nextCursor", hasMore ? positionOf.apply(list.get(list.size() - 1)).encode() : null);
+        return result;
+    }
+}
@@ -0,0 +1,18 @@
+package com.golden.util;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时输出各 {@link SampledLogger} 调用点的汇总日志
+ */
+@Component
+public class SampledLogReporter {
+    
+    @Scheduled(fixedDelayString = "${app.log-sampling.report-interval-ms:60000}")
+    public void report() {
+        for (SampledLogger sampledLogger : SampledLogger.registered()) {
+            sampledLogger.report();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.golden.util;
+
+import org.slf4j.Logger;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热点路径限流日志
+ * 每个调用点每秒最多输出 permitsPerSecond 条明细日志，其余只累加计数，
+ * 由 {@link SampledLogReporter} 定时按调用点输出一条汇总（调用次数、输出条数、抑制条数）。
+ * 判断和计数都不分配对象，调用方应先调用 {@link #sample()}，返回 true 时再拼装日志参数：
+ * <pre>
+ * if (LIST_LOG.sample()) {
+ *     logger.info("查询商品列表: page={}", page);
+ * }
+ * </pre>
+ */
+public final class SampledLogger {
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final Collection<SampledLogger> REGISTRY = new CopyOnWriteArrayList<>();
+    
+    private final Logger logger;
+    private final String name;
+    private final int permitsPerSecond;
+    
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder emitted = new LongAdder();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger windowPermits = new AtomicInteger();
+    
+    private SampledLogger(Logger logger, String name, int permitsPerSecond) {
+        this.logger = logger;
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+    }
+    
+    /**
+     * 创建调用点，一般作为静态常量；汇总日志使用传入的 logger 输出
+     */
+    public static SampledLogger of(Logger logger, String name, int permitsPerSecond) {
+        SampledLogger sampledLogger = new SampledLogger(logger, name, permitsPerSecond);
+        REGISTRY.add(sampledLogger);
+        return sampledLogger;
+    }
+    
+    static Collection<SampledLogger> registered() {
+        return Collections.unmodifiableCollection(REGISTRY);
+    }
+    
+    /**
+     * 记录一次调用，返回本次是否输出明细日志（日志级别未开启时恒为 false）
+     */
+    public boolean sample() {
+        calls.increment();
+        if (!logger.isInfoEnabled()) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            windowPermits.set(0);
+        }
+        if (windowPermits.incrementAndGet() <= permitsPerSecond) {
+            emitted.increment();
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * 输出并清零上一周期的汇总，周期内没有调用时不输出
+     */
+    void report() {
+        long callCount = calls.sumThenReset();
+        long emittedCount = emitted.sumThenReset();
+        if (callCount > 0) {
+            logger.info("日志汇总: {} 调用={}, 输出={}, 抑制={}", name, callCount, emittedCount, callCount - emittedCount);
+        }
+    }
+}
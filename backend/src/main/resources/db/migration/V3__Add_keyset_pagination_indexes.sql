@@ -0,0 +1,14 @@
+-- Flyway 迁移脚本 V3: 游标分页索引
+-- 列表按 (created_at, id) 倒序翻页，复合索引让游标定位直接走索引范围扫描
+
+-- 商品列表：status = 1 过滤后按创建时间倒序
+CREATE INDEX idx_status_created ON products (status, created_at, id);
+
+-- 用户订单列表
+CREATE INDEX idx_user_created ON orders (user_id, created_at, id);
+
+-- 管理后台全部订单列表
+CREATE INDEX idx_created ON orders (created_at, id);
+
+-- 商品评价列表
+CREATE INDEX idx_product_created ON reviews (product_id, created_at, id);
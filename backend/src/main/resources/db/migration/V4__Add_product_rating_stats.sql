@@ -0,0 +1,28 @@
+-- Flyway 迁移脚本 V4: 商品评分汇总表
+-- 每个商品一行，保存评价数、评分总和及 1-5 星分布；发表评价时在同一事务内增量累加，
+-- 列表页展示平均分和星级分布时不再对 reviews 做聚合查询
+
+CREATE TABLE IF NOT EXISTS product_rating_stats (
+    product_id BIGINT PRIMARY KEY,
+    review_count INT NOT NULL DEFAULT 0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    star1 INT NOT NULL DEFAULT 0,
+    star2 INT NOT NULL DEFAULT 0,
+    star3 INT NOT NULL DEFAULT 0,
+    star4 INT NOT NULL DEFAULT 0,
+    star5 INT NOT NULL DEFAULT 0,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 按已有评价回填
+INSERT INTO product_rating_stats (product_id, review_count, rating_sum, star1, star2, star3, star4, star5)
+SELECT product_id,
+       COUNT(*),
+       SUM(rating),
+       SUM(rating = 1),
+       SUM(rating = 2),
+       SUM(rating = 3),
+       SUM(rating = 4),
+       SUM(rating = 5)
+FROM reviews
+GROUP BY product_id;
@@ -0,0 +1,20 @@
+-- Flyway 迁移脚本 V5: 事务发件箱
+-- 业务事务内写入领域事件，提交后由进程内分发器按聚合顺序投递给监听器，
+-- 缓存失效、超时登记等非关键副作用不再占用下单事务时间
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    aggregate_type VARCHAR(50) NOT NULL COMMENT '聚合类型，如 order',
+    aggregate_id BIGINT NOT NULL COMMENT '聚合ID，同一聚合的事件按 id 顺序投递',
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT COMMENT 'JSON 格式事件内容',
+    status INT NOT NULL DEFAULT 0 COMMENT '0-待投递 1-已投递 2-超过重试次数',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(3) NOT NULL,
+    last_error VARCHAR(500),
+    created_at DATETIME(3) DEFAULT CURRENT_TIMESTAMP(3),
+    processed_at DATETIME(3),
+    INDEX idx_status_next (status, next_attempt_at),
+    INDEX idx_aggregate (aggregate_type, aggregate_id, status, id),
+    INDEX idx_status_processed (status, processed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
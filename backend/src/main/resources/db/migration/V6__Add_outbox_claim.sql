@@ -0,0 +1,9 @@
+-- Flyway 迁移脚本 V6: 发件箱事件认领
+-- 多实例部署时各实例的分发器先用一条 UPDATE 认领一批事件（写入实例标识和租约到期时间），
+-- 再只投递自己认领的事件，避免同一事件被多个实例同时投递；实例宕机后租约到期由其他实例重新认领
+
+ALTER TABLE outbox_events
+    ADD COLUMN claimed_by VARCHAR(64) NULL COMMENT '认领事件的分发器实例标识' AFTER next_attempt_at,
+    ADD COLUMN claimed_until DATETIME(3) NULL COMMENT '认领租约到期时间，到期前其他实例不会投递' AFTER claimed_by;
+
+CREATE INDEX idx_claimed_by ON outbox_events (claimed_by, status);
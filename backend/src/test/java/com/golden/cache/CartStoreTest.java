@@ -0,0 +1,186 @@
+package com.golden.cache;
+
+import com.golden.dto.CartBatchRequest;
+import com.golden.entity.CartItem;
+import com.golden.mapper.CartItemMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CartStoreTest {
+    private static final Long USER_ID = 1L;
+    private static final Long PRODUCT_ID = 10L;
+    
+    private final CartItemMapper cartItemMapper = mock(CartItemMapper.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final CartStore cartStore = new CartStore(cartItemMapper, new TransactionTemplate(transactionManager),
+            true, 500, 1800000);
+    private final List<List<CartItem>> upserts = new ArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    
+    @BeforeEach
+    void setUp() {
+        when(cartItemMapper.findByUserId(anyLong())).thenReturn(new ArrayList<>());
+        doAnswer(invocation -> {
+            invocation.<CartItem>getArgument(0).setId(ids.incrementAndGet());
+            return 1;
+        }).when(cartItemMapper).insert(any());
+    }
+    
+    @Test
+    void cartOperationsDoNotWaitForScheduledWrite() throws Exception {
+        cartStore.add(USER_ID, PRODUCT_ID, 1);
+        cartStore.add(USER_ID, PRODUCT_ID, 2);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockUpsert(writing, release);
+        
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(cartStore::flushAll);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        // 写库进行中，同一用户的加购不被阻塞
+        CompletableFuture.runAsync(() -> cartStore.add(USER_ID, PRODUCT_ID, 1)).get(5, TimeUnit.SECONDS);
+        release.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+        
+        assertThat(upserts.get(0)).extracting(CartItem::getQuantity).containsExactly(3);
+        // 写库期间的数量变化重新标记为脏，下一轮写入最新数量
+        assertThat(cartStore.stats().get("queueDepth")).isEqualTo(1);
+        cartStore.flushAll();
+        assertThat(upserts.get(1)).extracting(CartItem::getQuantity).containsExactly(4);
+    }
+    
+    @Test
+    void lineRemovedDuringWriteIsDeletedAgain() throws Exception {
+        cartStore.add(USER_ID, PRODUCT_ID, 1);
+        cartStore.setQuantity(USER_ID, 1L, 5);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockUpsert(writing, release);
+        
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(cartStore::flushAll);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture.runAsync(() -> cartStore.remove(USER_ID, 1L)).get(5, TimeUnit.SECONDS);
+        release.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+        
+        // 旧快照写回了已删除的行，核对后再次删除
+        verify(cartItemMapper).delete(1L);
+        verify(cartItemMapper).deleteByUserIdAndProductIds(USER_ID, List.of(PRODUCT_ID));
+        assertThat(cartStore.list(USER_ID)).isEmpty();
+    }
+    
+    @Test
+    void failedWriteIsRetried() {
+        cartStore.add(USER_ID, PRODUCT_ID, 1);
+        cartStore.setQuantity(USER_ID, 1L, 2);
+        when(cartItemMapper.batchUpsert(anyList()))
+                .thenThrow(new RuntimeException("connection refused"))
+                .thenAnswer(invocation -> {
+                    upserts.add(new ArrayList<>(invocation.<List<CartItem>>getArgument(0)));
+                    return 1;
+                });
+        
+        cartStore.flushAll();
+        assertThat(cartStore.stats().get("queueDepth")).isEqualTo(1);
+        assertThat(cartStore.stats().get("flushFailures")).isEqualTo(1L);
+        
+        cartStore.flushAll();
+        assertThat(cartStore.stats().get("queueDepth")).isEqualTo(0);
+        assertThat(upserts.get(0)).extracting(CartItem::getQuantity).containsExactly(2);
+    }
+    
+    @Test
+    void orderFlushWaitsForScheduledWriteOfSameUser() throws Exception {
+        cartStore.add(USER_ID, PRODUCT_ID, 1);
+        cartStore.setQuantity(USER_ID, 1L, 2);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockUpsert(writing, release);
+        
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(cartStore::flushAll);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        cartStore.setQuantity(USER_ID, 1L, 3);
+        CompletableFuture<Void> orderFlush = CompletableFuture.runAsync(() -> cartStore.flush(USER_ID));
+        Thread.sleep(200);
+        assertThat(orderFlush).isNotDone();
+        release.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+        orderFlush.get(5, TimeUnit.SECONDS);
+        
+        assertThat(upserts).extracting(batch -> batch.get(0).getQuantity()).containsExactly(2, 3);
+    }
+    
+    @Test
+    void failedBatchLeavesCartUnchanged() {
+        cartStore.add(USER_ID, PRODUCT_ID, 1);
+        when(cartItemMapper.batchUpsert(anyList())).thenThrow(new RuntimeException("deadlock"));
+        
+        assertThatThrownBy(() -> cartStore.applyBatch(USER_ID, List.of(
+                operation("remove", PRODUCT_ID, null), operation("add", 20L, 2)))).hasMessage("deadlock");
+        
+        // 删除与 upsert 在同一事务内，upsert 失败时一起回滚，内存不变
+        verify(cartItemMapper).deleteByUserIdAndProductIds(USER_ID, List.of(PRODUCT_ID));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        assertThat(cartStore.list(USER_ID)).extracting(CartItem::getProductId).containsExactly(PRODUCT_ID);
+    }
+    
+    @Test
+    void writesThroughWhenWriteBehindDisabled() {
+        CartStore direct = new CartStore(cartItemMapper, new TransactionTemplate(transactionManager), false, 500, 1800000);
+        when(cartItemMapper.update(any())).thenReturn(1, 0);
+        
+        direct.add(USER_ID, PRODUCT_ID, 1);
+        direct.add(USER_ID, PRODUCT_ID, 1);
+        assertThat(direct.setQuantity(USER_ID, 1L, 5)).isTrue();
+        assertThat(direct.setQuantity(USER_ID, 99L, 5)).isFalse();
+        direct.list(USER_ID);
+        direct.list(USER_ID);
+        direct.flushAll();
+        
+        // 不缓存购物车：每次读取都查询数据库，数量变化立即写库，没有待刷写的数据
+        verify(cartItemMapper, times(2)).insert(any());
+        verify(cartItemMapper, times(2)).findByUserId(USER_ID);
+        verify(cartItemMapper, never()).batchUpsert(anyList());
+        assertThat(direct.stats()).containsEntry("cachedCarts", 0).containsEntry("queueDepth", 0);
+    }
+    
+    private CartBatchRequest.Operation operation(String op, Long productId, Integer quantity) {
+        CartBatchRequest.Operation operation = new CartBatchRequest.Operation();
+        operation.setOp(op);
+        operation.setProductId(productId);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+    
+    private void blockUpsert(CountDownLatch writing, CountDownLatch release) {
+        when(cartItemMapper.batchUpsert(anyList())).thenAnswer(invocation -> {
+            upserts.add(new ArrayList<>(invocation.<List<CartItem>>getArgument(0)));
+            if (upserts.size() == 1) {
+                writing.countDown();
+                assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+            }
+            return 1;
+        });
+    }
+}
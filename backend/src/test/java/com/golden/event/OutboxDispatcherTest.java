@@ -0,0 +1,156 @@
+package com.golden.event;
+
+import com.golden.entity.OutboxEvent;
+import com.golden.mapper.OutboxEventMapper;
+import com.golden.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 多实例投递：两个分发器同时认领同一张发件箱表，每个事件只投递一次，同一聚合内按写入顺序投递；
+ * 投递失败的事件按数据库时钟退避后重试
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxDispatcherTest {
+    private static final String EVENT_TYPE = "test.claimed";
+    private static final String FLAKY_EVENT_TYPE = "test.flaky";
+    private static final int AGGREGATES = 20;
+    private static final int EVENTS_PER_AGGREGATE = 5;
+    
+    @Autowired
+    private OutboxEventMapper outboxEventMapper;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final List<OutboxEvent> delivered = new ArrayList<>();
+    
+    @Test
+    void concurrentDispatchersDeliverEachEventOnceInAggregateOrder() throws Exception {
+        long firstAggregate = System.nanoTime();
+        for (int seq = 0; seq < EVENTS_PER_AGGREGATE; seq++) {
+            for (int i = 0; i < AGGREGATES; i++) {
+                OutboxEvent event = new OutboxEvent();
+                event.setAggregateType("test");
+                event.setAggregateId(firstAggregate + i);
+                event.setEventType(EVENT_TYPE);
+                event.setPayload(String.valueOf(seq));
+                outboxEventMapper.insert(event);
+            }
+        }
+        OutboxDispatcher first = dispatcher();
+        OutboxDispatcher second = dispatcher();
+        
+        first.start();
+        second.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (pending() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+        } finally {
+            first.stop();
+            second.stop();
+        }
+        
+        assertThat(pending()).isZero();
+        synchronized (delivered) {
+            assertThat(delivered).hasSize(AGGREGATES * EVENTS_PER_AGGREGATE);
+            assertThat(delivered).extracting(OutboxEvent::getId).doesNotHaveDuplicates();
+            Map<Long, List<Integer>> sequences = new HashMap<>();
+            for (OutboxEvent event : delivered) {
+                sequences.computeIfAbsent(event.getAggregateId(), k -> new ArrayList<>())
+                        .add(Integer.parseInt(event.getPayload()));
+            }
+            assertThat(sequences).hasSize(AGGREGATES);
+            sequences.values().forEach(seqs -> assertThat(seqs).containsExactly(0, 1, 2, 3, 4));
+        }
+    }
+    
+    @Test
+    void failedEventIsRetriedAfterBackoff() throws Exception {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType("test");
+        event.setAggregateId(System.nanoTime());
+        event.setEventType(FLAKY_EVENT_TYPE);
+        event.setPayload("0");
+        outboxEventMapper.insert(event);
+        OutboxDispatcher dispatcher = dispatcher();
+        
+        dispatcher.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (status(event.getId()) == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            dispatcher.refreshStats();
+            dispatcher.purge();
+        } finally {
+            dispatcher.stop();
+        }
+        
+        assertThat(status(event.getId())).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT attempts FROM outbox_events WHERE id = ?",
+                Integer.class, event.getId())).isEqualTo(1);
+        assertThat(dispatcher.stats()).containsEntry("lagSeconds", 0.0);
+    }
+    
+    private OutboxDispatcher dispatcher() {
+        OutboxEventListener listener = new OutboxEventListener() {
+            @Override
+            public String eventType() {
+                return EVENT_TYPE;
+            }
+            
+            @Override
+            public void handle(OutboxEvent event) throws Exception {
+                Thread.sleep(1);
+                synchronized (delivered) {
+                    delivered.add(event);
+                }
+            }
+        };
+        // 首次投递失败，退避后重试成功
+        OutboxEventListener flaky = new OutboxEventListener() {
+            private final Set<Long> failedOnce = ConcurrentHashMap.newKeySet();
+            
+            @Override
+            public String eventType() {
+                return FLAKY_EVENT_TYPE;
+            }
+            
+            @Override
+            public void handle(OutboxEvent event) {
+                if (failedOnce.add(event.getId())) {
+                    throw new IllegalStateException("模拟投递失败");
+                }
+            }
+        };
+        return new OutboxDispatcher(outboxEventMapper, List.of(listener, flaky), mock(MetricsRegistry.class),
+                true, 20, 7, 10, 100, 1000, 60000, 72);
+    }
+    
+    private int status(Long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM outbox_events WHERE id = ?", Integer.class, id);
+    }
+    
+    private int pending() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events WHERE event_type = ? AND status = 0",
+                Integer.class, EVENT_TYPE);
+    }
+}
@@ -0,0 +1,71 @@
+package com.golden.search;
+
+import com.golden.entity.Product;
+import com.golden.mapper.ProductMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+    private final ProductMapper productMapper = mock(ProductMapper.class);
+    private final ProductSearchIndex index = new ProductSearchIndex(productMapper);
+    
+    @Test
+    void matchesPartialLatinWords() {
+        when(productMapper.findAllForIndex()).thenReturn(List.of(
+                product(1L, "Apple iPhone 15 Pro", "旗舰手机"),
+                product(2L, "小米 Redmi Note", "性价比手机"),
+                product(3L, "Phone Case", "保护壳")));
+        index.rebuild();
+        
+        assertThat(index.search("phon", null)).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(index.search("IPHONE", null)).containsExactly(1L);
+        assertThat(index.search("edm", null)).containsExactly(2L);
+        assertThat(index.search("手机", null)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("iphone 手机", null)).containsExactly(1L);
+        assertThat(index.search("android", null)).isEmpty();
+    }
+    
+    @Test
+    void replaysChangesMadeDuringRebuild() {
+        when(productMapper.findAllForIndex()).thenAnswer(invocation -> {
+            // 快照加载期间发生的新增和删除
+            index.index(product(2L, "Kindle Paperwhite", null));
+            index.remove(1L);
+            return List.of(product(1L, "Kindle Oasis", null));
+        });
+        index.rebuild();
+        
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("kindle", null)).containsExactly(2L);
+    }
+    
+    @Test
+    void periodicRebuildPicksUpChangesMadeElsewhere() {
+        when(productMapper.findAllForIndex()).thenReturn(List.of(product(1L, "Kindle Oasis", null)));
+        index.rebuild();
+        
+        // 其他实例修改了商品 1、新增了商品 2，定时重建后生效
+        when(productMapper.findAllForIndex()).thenReturn(List.of(
+                product(1L, "Kobo Libra", null), product(2L, "Kindle Scribe", null)));
+        index.rebuild();
+        
+        assertThat(index.search("kindle", null)).containsExactly(2L);
+        assertThat(index.search("kobo", null)).containsExactly(1L);
+    }
+    
+    private Product product(Long id, String name, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setStatus(1);
+        product.setCreatedAt(LocalDateTime.now());
+        return product;
+    }
+}
@@ -0,0 +1,148 @@
+package com.golden.service;
+
+import com.golden.entity.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 并发下单库存压测
+ * 数百个用户同时对同一限量商品下单，验证条件扣减（stock >= ?）与库存预占账本共同保证不超卖，
+ * 失败订单的预占在回滚后归还或从账本移除。
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderServiceStockConcurrencyTest {
+    private static final int BUYERS = 300;
+    private static final int STOCK = 50;
+    private static final int THREADS = 32;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private StockReservationLedger stockReservationLedger;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    private long productId;
+    private final List<Long> buyers = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO products (name, price, stock, status) VALUES ('限量商品', 99.00, ?, 1)", STOCK);
+        productId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Long.class);
+        buyers.clear();
+        for (int i = 0; i < BUYERS; i++) {
+            String username = "buyer-" + productId + "-" + i;
+            jdbcTemplate.update("INSERT INTO users (username, password) VALUES (?, 'x')", username);
+            long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+            jdbcTemplate.update("INSERT INTO cart_items (user_id, product_id, quantity) VALUES (?, ?, 1)", userId, productId);
+            buyers.add(userId);
+        }
+    }
+    
+    @Test
+    void concurrentOrdersNeverOversell() throws Exception {
+        int succeeded = placeConcurrently(buyers);
+    
+        assertSoldExactlyStock(succeeded);
+    }
+    
+    @Test
+    void staleLedgerIsCorrectedByConditionalDecrement() throws Exception {
+        // 账本记录高于数据库实际库存（如其他实例已售出），由数据库条件扣减兜底
+        stockReservationLedger.seed(productId, STOCK * 10);
+    
+        int succeeded = placeConcurrently(buyers);
+    
+        assertSoldExactlyStock(succeeded);
+    }
+    
+    @Test
+    void rolledBackOrderReleasesReservation() {
+        stockReservationLedger.invalidate(productId);
+    
+        transactionTemplate.executeWithoutResult(status -> {
+            orderService.createOrder(buyers.get(0), "测试地址");
+            assertThat(stockReservationLedger.available(productId)).isEqualTo(STOCK - 1);
+            status.setRollbackOnly();
+        });
+    
+        assertThat(stockReservationLedger.available(productId)).isEqualTo(STOCK);
+        assertThat(stock()).isEqualTo(STOCK);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE user_id = ?",
+                Integer.class, buyers.get(0))).isEqualTo(1);
+    }
+    
+    private int placeConcurrently(List<Long> userIds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Order>> futures = new ArrayList<>(userIds.size());
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return orderService.createOrder(userId, "测试地址");
+                    } catch (RuntimeException e) {
+                        assertThat(e).hasMessage("商品库存不足");
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Order> future : futures) {
+                if (future.get(60, TimeUnit.SECONDS) != null) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private void assertSoldExactlyStock(int succeeded) {
+        int finalStock = stock();
+        Integer sold = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0) FROM order_items WHERE product_id = ?", Integer.class, productId);
+    
+        assertThat(finalStock).isGreaterThanOrEqualTo(0);
+        assertThat(succeeded).isEqualTo(STOCK);
+        assertThat(sold).isEqualTo(STOCK);
+        assertThat(finalStock).isZero();
+        // 失败订单的预占已归还或账本记录已移除，不会残留多扣或多放的库存
+        Integer available = stockReservationLedger.available(productId);
+        assertThat(available == null || available == finalStock)
+                .as("ledger available=%s, db stock=%s", available, finalStock).isTrue();
+    
+        List<Map<String, Object>> carts = jdbcTemplate.queryForList(
+                "SELECT user_id FROM cart_items WHERE product_id = ?", productId);
+        assertThat(carts).hasSize(BUYERS - STOCK);
+    }
+    
+    private int stock() {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+    }
+}
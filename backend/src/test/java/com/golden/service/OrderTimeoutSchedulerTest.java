@@ -0,0 +1,61 @@
+package com.golden.service;
+
+import com.golden.entity.OrderStatus;
+import com.golden.mapper.OrderMapper;
+import com.golden.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 超时队列补齐：截止时间由数据库计算的已下单时长推算，与 JVM 时区无关
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderTimeoutSchedulerTest {
+    
+    @Autowired
+    private OrderMapper orderMapper;
+    
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void reloadCancelsOnlyOrdersPastTheirDeadline() {
+        long expired = insertPendingOrder("DATEADD(SECOND, -3600, NOW())");
+        insertPendingOrder("NOW()");
+        OrderCancellationService cancellationService = mock(OrderCancellationService.class);
+        OrderTimeoutScheduler scheduler = new OrderTimeoutScheduler(orderMapper, cancellationService, metricsRegistry,
+                true, 1800, 200);
+        
+        scheduler.start();
+        try {
+            verify(cancellationService, timeout(5000)).cancel(eq(List.of(expired)), eq(OrderStatus.PENDING));
+            verify(cancellationService, after(500).times(1)).cancel(anyList(), eq(OrderStatus.PENDING));
+        } finally {
+            scheduler.stop();
+        }
+    }
+    
+    private long insertPendingOrder(String createdAt) {
+        String orderNo = UUID.randomUUID().toString().replace("-", "");
+        jdbcTemplate.update("INSERT INTO orders (user_id, order_no, total_amount, status, created_at) VALUES (1, ?, 10.00, 0, "
+                + createdAt + ")", orderNo);
+        return jdbcTemplate.queryForObject("SELECT id FROM orders WHERE order_no = ?", Long.class, orderNo);
+    }
+}